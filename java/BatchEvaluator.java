@@ -0,0 +1,83 @@
+/**
+ * The BatchEvaluator class finds the strengths of many five card hands in one call,
+ * for work such as simulation that evaluates hands by the thousand rather than one
+ * Player at a time. The hands and the strengths are plain int arrays, so a batch
+ * allocates nothing.
+ *
+ * create() picks the fastest evaluator the JVM can run. VectorBatchEvaluator, in the
+ * vector folder, works on many hands at once with the jdk.incubator.vector module; it
+ * is used when it was compiled and the JVM was started with
+ * --add-modules jdk.incubator.vector. Otherwise this class evaluates each hand with
+ * HandStrength. Both give exactly the values HandStrength.of gives.
+ */
+public class BatchEvaluator {
+    /** Name of the Vector API evaluator class, which is loaded only if the JVM has the module */
+    private static final String VECTOR_EVALUATOR = "VectorBatchEvaluator";
+
+    /**
+     * Creates the scalar evaluator; use create() to get the fastest one.
+     */
+    protected BatchEvaluator() {
+    }
+
+    /**
+     * @return The Vector API evaluator if the JVM can run it, or else the scalar one
+     */
+    public static BatchEvaluator create() {
+        try {
+            return (BatchEvaluator) Class.forName(VECTOR_EVALUATOR).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled, or the JVM was started without the incubator module
+            return scalar();
+        }
+    }
+
+    /**
+     * @return An evaluator that looks up each hand with HandStrength
+     */
+    public static BatchEvaluator scalar() {
+        return new BatchEvaluator();
+    }
+
+    /**
+     * Evaluates a batch of hands.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the first hand
+     * @param strengths Array to write the strengths into, as HandStrength.of gives them
+     * @param to Index of the first strength to write
+     * @param count Number of hands
+     * @throws IllegalArgumentException if a card appears twice in a hand
+     * @throws IndexOutOfBoundsException if the hands or strengths do not fit in the arrays
+     */
+    public void evaluate(int[] cards, int from, int[] strengths, int to, int count) {
+        checkBounds(cards, from, strengths, to, count);
+        evaluateScalar(cards, from, strengths, to, count);
+    }
+
+    /**
+     * @return The name of the evaluator, such as "scalar"
+     */
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Evaluates each hand with HandStrength, without checking the bounds first.
+     */
+    protected static void evaluateScalar(int[] cards, int from, int[] strengths, int to, int count) {
+        for (int h = 0; h < count; h++) {
+            strengths[to + h] = HandStrength.of(cards, from + h * 5);
+        }
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the hands or strengths do not fit in the arrays
+     */
+    protected static void checkBounds(int[] cards, int from, int[] strengths, int to, int count) {
+        if (count < 0 || from < 0 || to < 0 || from > cards.length - 5L * count || to > strengths.length - count) {
+            throw new IndexOutOfBoundsException("Batch of " + count + " hands at card " + from + ", strength " + to
+                    + " does not fit in " + cards.length + " cards and " + strengths.length + " strengths");
+        }
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.stream.*;
+
+/**
+ * The BulkMode class replays a large file of tables in one run, or deals a large run
+ * of tables from a DealStream. The tables are read or dealt a batch at a time, each
+ * batch is ranked across all cores, and the results are written out before the next
+ * batch is read, so memory use stays the same however many tables there are.
+ *
+ * A table is either one line of five comma separated cards per hand (the handset file
+ * format) or all of its cards on one line, e.g. thirty cards for six hands. Blank lines
+ * are skipped. A table with an invalid or repeated card is reported on System.err and skipped.
+ */
+public class BulkMode {
+    /** Tables read before a batch is ranked and written */
+    private static final int BATCH_SIZE = 4096;
+
+    /** Bytes read from the input at a time */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final int seats;
+    private final int cardsPerTable;
+    private final ThreadLocal<TableRanker> rankers;
+
+    private final ResultWriter out;
+    private HandStoreWriter store;
+    private ShadowRanker shadow;
+    private final int[] cards;
+    private final int[] order;
+    private final int[] strengths;
+
+    private long tables;
+    private long errors;
+
+    // Where the reader is in the current table, kept between buffers
+    private int batched;
+    private int row;
+    private int skipLines;
+    private long tableLine;
+
+    // When the current stretch of parsing began, and the batch size then
+    private long parseStart;
+    private int parseFrom;
+
+    /**
+     * Creates a bulk run of tables with as many hands as the writer expects.
+     * @param out Where to write the results; it is finished when processing ends
+     */
+    public BulkMode(ResultWriter out) {
+        this(out, null);
+    }
+
+    /**
+     * Creates a bulk run of tables with as many hands as the writer expects,
+     * looking hands up in a cache before evaluating them.
+     * @param out Where to write the results; it is finished when processing ends
+     * @param cache Cache of strengths by card mask, as made by EvaluationCache.ofHandStrengths,
+     *              shared by all threads, or null to evaluate every hand
+     */
+    public BulkMode(ResultWriter out, EvaluationCache cache) {
+        this.out = out;
+        seats = out.getSeats();
+        cardsPerTable = seats * 5;
+        rankers = ThreadLocal.withInitial(() -> new TableRanker(seats, cache));
+        cards = new int[BATCH_SIZE * cardsPerTable];
+        order = new int[BATCH_SIZE * seats];
+        strengths = new int[BATCH_SIZE * seats];
+    }
+
+    /**
+     * Also appends every ranked table to a store. The store is flushed when processing
+     * ends, but left open for the caller to close.
+     * @param store Store of tables with as many hands as the writer expects, or null for none
+     * @throws IllegalArgumentException if the store holds tables of another size
+     */
+    public void setStore(HandStoreWriter store) {
+        if (store != null && store.getSeats() != seats) {
+            throw new IllegalArgumentException("Expected a store of " + seats + " hands, found " + store.getSeats());
+        }
+        this.store = store;
+    }
+
+    /**
+     * Also checks a sample of the ranked tables against the legacy ranking code.
+     * @param shadow The check, for tables with as many hands as the writer expects, or null for none
+     */
+    public void setShadow(ShadowRanker shadow) {
+        this.shadow = shadow;
+    }
+
+    /**
+     * Reads, ranks and writes every table in a file.
+     *
+     * @param filename Name of the file to read
+     * @return The number of tables ranked
+     * @throws IOException if the file cannot be read or the results cannot be written
+     */
+    public long processFile(String filename) throws IOException {
+        try (FileChannel in = FileChannel.open(Paths.get(filename))) {
+            return process(in);
+        }
+    }
+
+    /**
+     * Reads, ranks and writes every table from a channel.
+     * The bytes are read into one reusable buffer and parsed in place, a buffer's worth
+     * of whole lines at a time; a line cut off at the end of the buffer is moved to the
+     * front and finished by the next read.
+     *
+     * @param in The tables to read
+     * @return The number of tables ranked
+     * @throws IOException if reading or writing fails, or a line is longer than the buffer
+     */
+    public long process(ReadableByteChannel in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CardParser parser = new CardParser(buffer);
+        boolean endOfInput = false;
+
+        while (!endOfInput) {
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer) < 0) {
+                    endOfInput = true;
+                    break;
+                }
+            }
+            buffer.flip();
+            int end = buffer.limit();
+
+            if (!endOfInput) {
+                // Only parse up to the last whole line
+                int lastLine = end - 1;
+                while (lastLine >= 0 && buffer.get(lastLine) != '\n') {
+                    lastLine--;
+                }
+                if (lastLine < 0) {
+                    throw new IOException("Line " + (parser.getLineNumber() + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+                }
+                buffer.limit(lastLine + 1);
+            }
+            parseStart = Metrics.start();
+            parseFrom = batched;
+            readTables(parser);
+            Metrics.stop(Phase.PARSE, parseStart, batched - parseFrom);
+
+            buffer.limit(end);
+            buffer.compact();
+        }
+
+        if (row != 0) {
+            System.err.println("Skipping incomplete table at line " + tableLine);
+            errors++;
+        }
+        flushBatch(batched);
+        batched = 0;
+        row = 0;
+        finish();
+        return tables;
+    }
+
+    /**
+     * Deals, ranks and writes a run of tables from a deal stream, a batch at a time.
+     * The tables are the same, in the same order, however many cores deal them.
+     *
+     * @param deals The stream to deal from, with as many hands as the writer expects
+     * @param first Index in the stream of the first table
+     * @param count Number of tables
+     * @return The number of tables ranked
+     * @throws IOException if the results cannot be written
+     * @throws IllegalArgumentException if the stream deals tables of another size
+     */
+    public long processDeals(DealStream deals, long first, long count) throws IOException {
+        if (deals.getSeats() != seats) {
+            throw new IllegalArgumentException("Expected a stream of " + seats + " hands, found " + deals.getSeats());
+        }
+        if (shadow != null) {
+            shadow.setDealStream(deals, first - tables);
+        }
+        for (long done = 0; done < count; ) {
+            int size = (int) Math.min(BATCH_SIZE, count - done);
+            deals.deal(first + done, size, cards, 0);
+            flushBatch(size);
+            done += size;
+        }
+        finish();
+        return tables;
+    }
+
+    private void finish() throws IOException {
+        long start = Metrics.start();
+        out.finish();
+        if (store != null) {
+            store.flush();
+        }
+        Metrics.stop(Phase.OUTPUT, start, 0);
+    }
+
+    /**
+     * Reads tables into the batch until the parser runs out of lines, ranking and
+     * writing the batch each time it fills up.
+     */
+    private void readTables(CardParser parser) throws IOException {
+        while (true) {
+            int to = batched * cardsPerTable + row * 5;
+            int count;
+            try {
+                count = parser.nextLine(cards, to, row == 0 ? cardsPerTable : 5);
+                if (count < 0) {
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                if (skipLines > 0) {
+                    skipLines--;
+                    continue;
+                }
+                if (row == 0) {
+                    tableLine = parser.getLineNumber();
+                }
+                skipTable(e.getMessage(), row == 0 && parser.getFieldCount() == cardsPerTable ? 0 : seats - row - 1);
+                continue;
+            }
+
+            if (skipLines > 0) {
+                // Rest of a line-per-hand table that had an invalid line
+                skipLines--;
+                continue;
+            }
+            if (row == 0) {
+                tableLine = parser.getLineNumber();
+            }
+
+            if (row == 0 && count == cardsPerTable) {
+                row = seats;
+            } else if (count == 5) {
+                row++;
+            } else {
+                skipTable("Expected 5 or " + cardsPerTable + " cards, found " + count, seats - row - 1);
+                continue;
+            }
+
+            if (row == seats) {
+                row = 0;
+                try {
+                    CardParser.checkDuplicates(cards, batched * cardsPerTable, cardsPerTable);
+                } catch (IllegalArgumentException e) {
+                    skipTable(e.getMessage(), 0);
+                    continue;
+                }
+                batched++;
+                if (batched == BATCH_SIZE) {
+                    Metrics.stop(Phase.PARSE, parseStart, batched - parseFrom);
+                    flushBatch(batched);
+                    batched = 0;
+                    parseStart = Metrics.start();
+                    parseFrom = 0;
+                }
+            }
+        }
+    }
+
+    private void skipTable(String message, int linesLeft) {
+        System.err.println("Skipping table at line " + tableLine + ": " + message);
+        errors++;
+        skipLines = linesLeft;
+        row = 0;
+    }
+
+    /**
+     * Ranks the tables of the batch in parallel, then writes them in the order they were read.
+     */
+    private void flushBatch(int batched) throws IOException {
+        IntStream.range(0, batched).parallel().forEach(t -> {
+            TableRanker ranker = rankers.get();
+            // Only a sampled table's ranking is timed, for the shadow check to set against the legacy path
+            boolean sampled = shadow != null && shadow.isSampled(tables + t);
+            long start = sampled ? System.nanoTime() : 0;
+            int[] ranked = ranker.rank(cards, t * cardsPerTable);
+            long rankNanos = sampled ? System.nanoTime() - start : 0;
+            for (int i = 0; i < seats; i++) {
+                order[t * seats + i] = ranked[i];
+                strengths[t * seats + i] = ranker.getStrength(ranked[i]);
+            }
+            if (sampled) {
+                shadow.check(tables + t, cards, t * cardsPerTable, order, t * seats, rankNanos);
+            }
+        });
+
+        long start = Metrics.start();
+        for (int t = 0; t < batched; t++) {
+            tables++;
+            out.writeTable(cards, t * cardsPerTable, order, strengths, t * seats);
+            if (store != null) {
+                store.append(cards, t * cardsPerTable, order, strengths, t * seats);
+            }
+        }
+        Metrics.stop(Phase.OUTPUT, start, batched);
+    }
+
+    /**
+     * @return The number of tables ranked so far
+     */
+    public long getTables() {
+        return tables;
+    }
+
+    /**
+     * @return The number of tables skipped because of invalid input
+     */
+    public long getErrors() {
+        return errors;
+    }
+}
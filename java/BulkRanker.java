@@ -0,0 +1,247 @@
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * The BulkRanker class ranks very large sets of hands at once, such as every hand of a
+ * leaderboard or a tournament, from their HandStrength values. Where TableRanker sorts
+ * the few hands of one table, this sorts millions of plain ints: a least significant
+ * digit radix sort of the strengths, two passes of 13 bits each. Each pass counts its
+ * digits over chunks of the hands in parallel and then moves each chunk's hands to the
+ * places the counts give it, also in parallel, so the sort is stable and takes the same
+ * time whatever the strengths are. Sets too small to be worth it sort rank keys instead.
+ *
+ * Hands of equal strength tie: they share a rank, the rank of the first of them, so the
+ * hand after a tie of two at rank 1 is ranked 3. Tied hands keep their input order.
+ */
+public class BulkRanker {
+    /** Fewest hands that are radix sorted; smaller sets sort rank keys with Arrays.sort */
+    public static final int RADIX_THRESHOLD = 1 << 12;
+
+    private static final int DIGIT_BITS = 13;
+    private static final int BUCKETS = 1 << DIGIT_BITS;
+
+    /** Strengths fit in two digits; keys are this minus the strength, so the best hand sorts first */
+    private static final int KEY_MASK = (1 << 2 * DIGIT_BITS) - 1;
+
+    /** Hands each task of a radix pass counts and moves */
+    private static final int CHUNK = 1 << 16;
+
+    /**
+     * The Ranking class is a ranked set of hands, best first.
+     */
+    public static final class Ranking {
+        /** Ids of the hands, best first */
+        public final int[] ids;
+        /** Strengths of the hands, best first */
+        public final int[] strengths;
+        /** Rank of each hand, best first: 1 plus the number of hands that beat it */
+        public final int[] ranks;
+        /** Number of different strengths, so a set with no ties has as many groups as hands */
+        public final int groups;
+
+        Ranking(int[] ids, int[] strengths, int[] ranks, int groups) {
+            this.ids = ids;
+            this.strengths = strengths;
+            this.ranks = ranks;
+            this.groups = groups;
+        }
+
+        /**
+         * @return The number of hands
+         */
+        public int getCount() {
+            return ids.length;
+        }
+
+        /**
+         * @param position Position of a hand, from 0 for the best
+         * @return The position after the last hand tied with it
+         * @throws IndexOutOfBoundsException if there is no such position
+         */
+        public int groupEnd(int position) {
+            Objects.checkIndex(position, ids.length);
+            int end = position + 1;
+            while (end < ids.length && ranks[end] == ranks[position]) {
+                end++;
+            }
+            return end;
+        }
+
+        /**
+         * @param position Position of a hand, from 0 for the best
+         * @return true, if another hand has the same strength
+         * @throws IndexOutOfBoundsException if there is no such position
+         */
+        public boolean isTied(int position) {
+            return ranks[position] != position + 1 || groupEnd(position) > position + 1;
+        }
+    }
+
+    private BulkRanker() {
+    }
+
+    /**
+     * Ranks a set of hands whose ids are their positions in the array, from 0.
+     *
+     * @param strengths Array holding the strengths, as HandStrength.of gives them
+     * @param from Index of the first strength
+     * @param count Number of hands
+     * @return The ranking
+     * @throws IllegalArgumentException if a value is not a strength
+     * @throws IndexOutOfBoundsException if the hands do not fit in the array
+     */
+    public static Ranking rank(int[] strengths, int from, int count) {
+        Objects.checkFromIndexSize(from, count, strengths.length);
+        return sort(strengths, from, null, 0, count);
+    }
+
+    /**
+     * Ranks a set of hands that carry their own ids, such as player or seat numbers.
+     *
+     * @param strengths Array holding the strengths, as HandStrength.of gives them
+     * @param from Index of the first strength
+     * @param ids Array holding the id of each hand
+     * @param at Index of the id of the first hand
+     * @param count Number of hands
+     * @return The ranking
+     * @throws IllegalArgumentException if a value is not a strength
+     * @throws IndexOutOfBoundsException if the hands or ids do not fit in the arrays
+     */
+    public static Ranking rank(int[] strengths, int from, int[] ids, int at, int count) {
+        Objects.checkFromIndexSize(from, count, strengths.length);
+        Objects.checkFromIndexSize(at, count, ids.length);
+        return sort(strengths, from, ids, at, count);
+    }
+
+    /**
+     * Sorts the hands and groups the ties; null ids number the hands from 0. An empty set
+     * has no groups.
+     */
+    private static Ranking sort(int[] strengths, int from, int[] ids, int at, int count) {
+        if (count == 0) {
+            return new Ranking(new int[0], new int[0], new int[0], 0);
+        }
+        long start = Metrics.start();
+        int[] sortedIds = new int[count];
+        int[] sorted = new int[count];
+        if (count < RADIX_THRESHOLD) {
+            keySort(strengths, from, ids, at, count, sortedIds, sorted);
+        } else {
+            radixSort(strengths, from, ids, at, count, sortedIds, sorted);
+        }
+
+        int[] ranks = new int[count];
+        int groups = groupTies(sorted, ranks, count);
+        Metrics.stop(Phase.RANK, start, count);
+        return new Ranking(sortedIds, sorted, ranks, groups);
+    }
+
+    private static void checkStrength(int strength) {
+        if (strength < 0 || strength > KEY_MASK) {
+            throw new IllegalArgumentException("Invalid strength: " + strength);
+        }
+    }
+
+    /**
+     * Sorts rank keys holding each hand's position, for sets too small to radix sort.
+     */
+    private static void keySort(int[] strengths, int from, int[] ids, int at, int count,
+                                int[] sortedIds, int[] sorted) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            checkStrength(strengths[from + i]);
+            keys[i] = HandStrength.rankKey(strengths[from + i], i);
+        }
+        Arrays.sort(keys);
+        for (int p = 0; p < count; p++) {
+            int i = HandStrength.rankKeyId(keys[p]);
+            sortedIds[p] = ids == null ? i : ids[at + i];
+            sorted[p] = strengths[from + i];
+        }
+    }
+
+    /**
+     * Sorts the keys low digit first into a spare pair of arrays and from there into the
+     * sorted ones. The first pass turns strengths into keys as it reads them and the
+     * second turns them back as it writes them.
+     */
+    private static void radixSort(int[] strengths, int from, int[] ids, int at, int count,
+                                  int[] sortedIds, int[] sorted) {
+        int[] spareKeys = new int[count];
+        int[] spareIds = new int[count];
+        pass(strengths, from, ids, at, spareKeys, spareIds, count, 0, KEY_MASK, 0);
+        pass(spareKeys, 0, spareIds, 0, sorted, sortedIds, count, DIGIT_BITS, 0, KEY_MASK);
+    }
+
+    /**
+     * Moves the hands from one pair of arrays to the other in order of one digit of their
+     * keys, keeping hands with the same digit in the order they were in. Values are
+     * flipped with readFlip to make the keys and with writeFlip as they are written.
+     */
+    private static void pass(int[] values, int from, int[] ids, int at, int[] toValues, int[] toIds,
+                             int count, int shift, int readFlip, int writeFlip) {
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        int[][] next = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] digits = new int[BUCKETS];
+            for (int i = c * CHUNK, end = Math.min(count, i + CHUNK); i < end; i++) {
+                int value = values[from + i];
+                if (readFlip != 0) {
+                    checkStrength(value);
+                }
+                digits[(value ^ readFlip) >>> shift & BUCKETS - 1]++;
+            }
+            next[c] = digits;
+        });
+
+        // Each chunk's hands of a digit go after those of the earlier digits and earlier chunks
+        int place = 0;
+        for (int digit = 0; digit < BUCKETS; digit++) {
+            for (int c = 0; c < chunks; c++) {
+                int size = next[c][digit];
+                next[c][digit] = place;
+                place += size;
+            }
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] places = next[c];
+            for (int i = c * CHUNK, end = Math.min(count, i + CHUNK); i < end; i++) {
+                int key = values[from + i] ^ readFlip;
+                int to = places[key >>> shift & BUCKETS - 1]++;
+                toValues[to] = key ^ writeFlip;
+                toIds[to] = ids == null ? i : ids[at + i];
+            }
+        });
+    }
+
+    /**
+     * Ranks each sorted hand by the position of the first hand of its strength, a chunk
+     * at a time in parallel, and counts the groups of equal strength.
+     */
+    private static int groupTies(int[] sorted, int[] ranks, int count) {
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        int[] groups = new int[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int rank = 0;
+            for (int p = c * CHUNK, end = Math.min(count, p + CHUNK); p < end; p++) {
+                if (p == 0 || sorted[p] != sorted[p - 1]) {
+                    rank = p + 1;
+                    groups[c]++;
+                }
+                ranks[p] = rank;
+            }
+        });
+
+        // A group carried over from the chunk before is left at 0 at the start of a chunk
+        int total = groups[0];
+        for (int c = 1; c < chunks; c++) {
+            total += groups[c];
+            int carried = ranks[c * CHUNK - 1];
+            for (int p = c * CHUNK, end = Math.min(count, p + CHUNK); p < end && ranks[p] == 0; p++) {
+                ranks[p] = carried;
+            }
+        }
+        return total;
+    }
+}
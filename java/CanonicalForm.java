@@ -0,0 +1,80 @@
+/**
+ * The CanonicalForm class is the immutable outcome of SuitIsomorphism.canonicalize.
+ * It holds the groups of cards with their suits renamed into canonical order, the
+ * renaming used, and the weight: how many different sets of cards share this form.
+ */
+public final class CanonicalForm {
+    private final long[] groups;
+    private final int permutation;
+    private final long weight;
+
+    /**
+     * Creates a canonical form. Only SuitIsomorphism builds these.
+     *
+     * @param groups The card masks after renaming
+     * @param permutation The suit permutation from the original cards to these
+     * @param weight The number of different card sets with this form
+     */
+    CanonicalForm(long[] groups, int permutation, long weight) {
+        this.groups = groups.clone();
+        this.permutation = permutation;
+        this.weight = weight;
+    }
+
+    /**
+     * @return The number of groups
+     */
+    public int getGroupCount() {
+        return groups.length;
+    }
+
+    /**
+     * @param group Index of the group
+     * @return The canonical card mask of the group
+     */
+    public long getGroup(int group) {
+        return groups[group];
+    }
+
+    /**
+     * @return The canonical card masks of all groups
+     */
+    public long[] getGroups() {
+        return groups.clone();
+    }
+
+    /**
+     * @return The suit permutation from the original cards to the canonical ones
+     */
+    public int getPermutation() {
+        return permutation;
+    }
+
+    /**
+     * @return The number of different card sets (suit renamings of the original) with this form
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @param card A canonical card id
+     * @return The card id it stands for in the original cards
+     */
+    public int toOriginal(int card) {
+        return SuitIsomorphism.permuteCard(card, SuitIsomorphism.inverse(permutation));
+    }
+
+    /**
+     * Puts the original suits back into the strength of a canonical hand, so the suit
+     * tie break rules give exactly the strength of the original hand.
+     *
+     * @param strength Strength of a five card hand made of canonical cards, from HandStrength.ofMask
+     * @param canonicalHand Card mask of that hand
+     * @return The strength of the same hand with the original suits, as HandStrength.ofMask gives it
+     */
+    public int toOriginal(int strength, long canonicalHand) {
+        int inverse = SuitIsomorphism.inverse(permutation);
+        return HandStrength.permuteSuits(strength, inverse, SuitIsomorphism.permuteMask(canonicalHand, inverse));
+    }
+}
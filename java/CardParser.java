@@ -0,0 +1,208 @@
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The CardParser class reads lines of comma separated cards (e.g., "10H, JH, QH, KH, AH")
+ * straight from the bytes of a ByteBuffer into card ids, without building strings.
+ * It works on heap buffers, direct buffers and memory mapped files alike.
+ *
+ * Spaces and tabs around a card are ignored and blank lines are skipped. A card must be
+ * two or three characters long and end in an uppercase suit letter, as in GameMode.
+ */
+public class CardParser {
+    /** Card is not two or three characters long */
+    private static final int BAD_LENGTH = -1;
+    /** Last character is not an uppercase letter */
+    private static final int BAD_CASE = -2;
+    /** Last character is not one of D, C, H, S */
+    private static final int BAD_SUIT = -3;
+    /** Face value is not 2 to 10, J, Q, K or A */
+    private static final int BAD_FACE = -4;
+
+    private final ByteBuffer buffer;
+    private long lineNumber;
+    private int fieldCount;
+
+    /**
+     * @param buffer The bytes to parse, from its position to its limit
+     */
+    public CardParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return The number of the last line read, counting from 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return The number of comma separated fields on the last line read, including
+     *         any that came after an invalid card
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Reads the cards of the next line that is not blank.
+     * If the line has an invalid card, the parser still moves past the line before
+     * the exception is thrown, so parsing can carry on with the next line.
+     *
+     * @param cards Array to write the card ids into
+     * @param from Index of the first card to write
+     * @param max Most cards the line may hold
+     * @return The number of cards on the line, or -1 when there are no more lines
+     * @throws IllegalArgumentException if a card is invalid or the line holds more than max cards
+     */
+    public int nextLine(int[] cards, int from, int max) {
+        int count = 0;
+        while (count == 0) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            lineNumber++;
+            count = readLine(cards, from, max);
+        }
+        return count;
+    }
+
+    private int readLine(int[] cards, int from, int max) {
+        int pos = buffer.position();
+        int endOfLine = pos;
+        while (endOfLine < buffer.limit() && buffer.get(endOfLine) != '\n') {
+            endOfLine++;
+        }
+        int next = Math.min(endOfLine + 1, buffer.limit());
+
+        int count = 0;
+        fieldCount = 0;
+        if (!isBlank(pos, endOfLine)) {
+            fieldCount = 1;
+            for (int i = pos; i < endOfLine; i++) {
+                if (buffer.get(i) == ',') {
+                    fieldCount++;
+                }
+            }
+            int start = pos;
+            while (true) {
+                int comma = start;
+                while (comma < endOfLine && buffer.get(comma) != ',') {
+                    comma++;
+                }
+
+                int end = comma;
+                while (start < end && isSpace(buffer.get(start))) {
+                    start++;
+                }
+                while (end > start && isSpace(buffer.get(end - 1))) {
+                    end--;
+                }
+
+                if (count == max) {
+                    buffer.position(next);
+                    throw new IllegalArgumentException("More than " + max + " cards on line " + lineNumber);
+                }
+                int card = parseCard(start, end);
+                if (card < 0) {
+                    buffer.position(next);
+                    throw new IllegalArgumentException(error(card, text(start, end)) + " (line " + lineNumber + ")");
+                }
+                cards[from + count++] = card;
+
+                if (comma >= endOfLine) {
+                    break;
+                }
+                start = comma + 1;
+            }
+        }
+
+        buffer.position(next);
+        return count;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int pos = start; pos < end; pos++) {
+            if (!isSpace(buffer.get(pos))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * @return The card id of the bytes from start to end, or a negative error code
+     */
+    private int parseCard(int start, int end) {
+        int length = end - start;
+        if (length < 2 || length > 3) {
+            return BAD_LENGTH;
+        }
+        byte s = buffer.get(end - 1);
+        if (s < 'A' || s > 'Z') {
+            return BAD_CASE;
+        }
+        int suit = CreateCard.parseSuit((char) s);
+        if (suit < 0) {
+            return BAD_SUIT;
+        }
+
+        int face;
+        byte f = buffer.get(start);
+        if (length == 3) {
+            face = f == '1' && buffer.get(start + 1) == '0' ? 10 : -1;
+        } else if (f >= '2' && f <= '9') {
+            face = f - '0';
+        } else {
+            switch (f) {
+                case 'J': face = 11; break;
+                case 'Q': face = 12; break;
+                case 'K': face = 13; break;
+                case 'A': face = 14; break;
+                default: face = -1; break;
+            }
+        }
+        return face < 0 ? BAD_FACE : CreateCard.of(face, suit);
+    }
+
+    private static String error(int code, String card) {
+        switch (code) {
+            case BAD_LENGTH: return "Invalid card length: " + card;
+            case BAD_CASE: return "Suit must be uppercase: " + card;
+            case BAD_SUIT: return "Invalid suit: " + card;
+            default: return "Invalid face value: " + card;
+        }
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Checks that no card appears twice.
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card to check
+     * @param count Number of cards to check
+     * @throws IllegalArgumentException if a card appears twice
+     */
+    public static void checkDuplicates(int[] cards, int from, int count) {
+        long seen = 0;
+        for (int i = from; i < from + count; i++) {
+            long bit = 1L << cards[i];
+            if ((seen & bit) != 0) {
+                throw new IllegalArgumentException("Duplicate card: " + CreateCard.toString(cards[i]));
+            }
+            seen |= bit;
+        }
+    }
+}
@@ -1,17 +1,37 @@
 /**
  * The CreateCard class represents a single playing card in a deck.
- * It stores the suit and face value of the card.
+ * A card is stored as a small integer id from 0 to 51, so hands and decks can be
+ * kept in primitive arrays. The id packs the face value and the suit:
+ * {@code id = (faceValue - 2) * 4 + suitIndex}, with the suits indexed in the
+ * order D, C, H, S used to break ties between hands.
  */
 public class CreateCard {
-    /** The suit of the card (e.g., "H" for Hearts, "S" for Spades) */
-    public String suit;
-    
-    /** The face value of the card (e.g., "A" for Ace, "K" for King, "7" for Seven) */
-    public String face;
+    /** Number of cards in a deck */
+    public static final int DECK_SIZE = 52;
+
+    /** Suit letters, indexed by suit index */
+    public static final char[] SUITS = {'D', 'C', 'H', 'S'};
+
+    /** Face strings, indexed by face value (2 to 14) */
+    private static final String[] FACES = {
+        null, null, "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"
+    };
+
+    /** Card strings, indexed by card id */
+    private static final String[] NAMES = new String[DECK_SIZE];
+
+    static {
+        for (int id = 0; id < DECK_SIZE; id++) {
+            NAMES[id] = FACES[faceValue(id)] + SUITS[suitIndex(id)];
+        }
+    }
+
+    /** The id of the card (0 to 51) */
+    public int id;
 
     /**
      * Default constructor.
-     * Creates an empty card with no suit or face value assigned.
+     * Creates the two of diamonds (id 0).
      */
     public CreateCard() {
     }
@@ -20,11 +40,156 @@ public class CreateCard {
      * Parameterized constructor.
      * Creates a card with the specified suit and face value.
      *
-     * @param i The suit of the card
-     * @param j The face value of the card
+     * @param i The suit of the card (e.g., "H" for Hearts)
+     * @param j The face value of the card (e.g., "A" for Ace)
      */
     public CreateCard(String i, String j) {
-        this.suit = i;
-        this.face = j;
+        this.id = parse(j + i);
+    }
+
+    /**
+     * @return The suit of the card (e.g., "H" for Hearts)
+     */
+    public String getSuit() {
+        return String.valueOf(suitChar(id));
+    }
+
+    /**
+     * @return The face value of the card (e.g., "A" for Ace)
+     */
+    public String getFace() {
+        return face(id);
+    }
+
+    @Override
+    public String toString() {
+        return NAMES[id];
+    }
+
+    /**
+     * Builds a card id from a face value and a suit index.
+     *
+     * @param faceValue The face value, 2 to 14 (ace high)
+     * @param suitIndex The suit index, 0 to 3 (D, C, H, S)
+     * @return The card id
+     */
+    public static int of(int faceValue, int suitIndex) {
+        return (faceValue - 2) * 4 + suitIndex;
+    }
+
+    /**
+     * @param id The card id
+     * @return The face value of the card, 2 to 14 (ace high)
+     */
+    public static int faceValue(int id) {
+        return (id >> 2) + 2;
+    }
+
+    /**
+     * @param id The card id
+     * @return The suit index of the card, 0 to 3 (D, C, H, S)
+     */
+    public static int suitIndex(int id) {
+        return id & 3;
+    }
+
+    /**
+     * @param id The card id
+     * @return The suit letter of the card
+     */
+    public static char suitChar(int id) {
+        return SUITS[id & 3];
+    }
+
+    /**
+     * @param id The card id
+     * @return The face of the card as a string (e.g., "10" or "A")
+     */
+    public static String face(int id) {
+        return FACES[faceValue(id)];
+    }
+
+    /**
+     * @param id The card id
+     * @return The card as a string (e.g., "10H")
+     */
+    public static String toString(int id) {
+        return NAMES[id];
+    }
+
+    /**
+     * Parses a card string such as "10H" or "AS".
+     *
+     * @param card The card string
+     * @return The card id
+     * @throws IllegalArgumentException if the face value or suit is invalid
+     */
+    public static int parse(String card) {
+        if (card.length() < 2 || card.length() > 3) {
+            throw new IllegalArgumentException("Invalid card length: " + card);
+        }
+        int suit = parseSuit(card.charAt(card.length() - 1));
+        if (suit < 0) {
+            throw new IllegalArgumentException("Invalid suit: " + card);
+        }
+        int face = parseFace(card, card.length() - 1);
+        if (face < 0) {
+            throw new IllegalArgumentException("Invalid face value: " + card);
+        }
+        return of(face, suit);
+    }
+
+    /**
+     * @param suit The suit letter
+     * @return The suit index, or -1 if the letter is not a suit
+     */
+    public static int parseSuit(char suit) {
+        switch (suit) {
+            case 'D': return 0;
+            case 'C': return 1;
+            case 'H': return 2;
+            case 'S': return 3;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Reads the face value from the first characters of a card string.
+     *
+     * @param card The card string
+     * @param length The number of characters holding the face value
+     * @return The face value, or -1 if it is not valid
+     */
+    private static int parseFace(String card, int length) {
+        if (length == 2) {
+            return card.charAt(0) == '1' && card.charAt(1) == '0' ? 10 : -1;
+        }
+        char c = card.charAt(0);
+        switch (c) {
+            case 'J': return 11;
+            case 'Q': return 12;
+            case 'K': return 13;
+            case 'A': return 14;
+            default: return c >= '2' && c <= '9' ? c - '0' : -1;
+        }
+    }
+
+    /**
+     * Joins cards into a space separated string (e.g., "10H JH QH KH AH").
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card
+     * @param count Number of cards to join
+     * @return The joined cards
+     */
+    public static String join(int[] cards, int from, int count) {
+        StringBuilder line = new StringBuilder();
+        for (int k = 0; k < count; k++) {
+            if (k > 0) {
+                line.append(' ');
+            }
+            line.append(NAMES[cards[from + k]]);
+        }
+        return line.toString();
     }
 }
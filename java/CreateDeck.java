@@ -1,566 +1,335 @@
 import java.util.*;
+import java.util.random.*;
 
 /**
  * The CreateDeck class manages the creation, shuffling, and dealing of a deck of cards,
  * as well as evaluating and ranking poker hands.
  */
 public class CreateDeck {
+    /** Fewest hands a table can be dealt */
+    public static final int MIN_SEATS = 2;
+    /** Most hands a table can be dealt; ten hands use fifty of the fifty-two cards */
+    public static final int MAX_SEATS = 10;
+    /** Number of hands dealt when no table size is given */
+    public static final int DEFAULT_SEATS = 6;
+
+    private static final String[] SEAT_NAMES = {
+        "", "", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten"
+    };
+
+    public int seats;               // Number of hands dealt
     public Player[] result;         // Array to store player hands and their rankings
     public String c1, c2, c3, c4, c5, c6;  // Purpose unclear, possibly for individual cards
-    public CreateCard[][] deckArray;  // 2D array representing the deck of cards
-    public String[] deltCards;      // Array to store dealt card hands as strings
-    public int rows, cols;          // Dimensions of the deckArray
+    public int[] deck;              // Card ids of the deck, top card first
+    public int[] deltCards;         // Card ids of the dealt hands, five per hand
+    public int rows, cols;          // Dimensions used when printing the deck
+
+    private RandomGenerator random = RandomGenerator.getDefault();
+    private EvaluationCache cache;
+    private final long[] rankKeys;
+    private final Player[] unranked;
 
     /**
-     * Default constructor initializing the deck and related structures.
+     * Default constructor initializing the deck and related structures for six hands.
      */
     public CreateDeck() {
-        result = new Player[6];
-        deckArray = new CreateCard[4][13];
-        deltCards = new String[6];
-        rows = deckArray.length;
-        cols = deckArray[0].length;
+        this(DEFAULT_SEATS);
     }
 
     /**
-     * Constructor for testing purposes, initializes a full deck of cards.
-     * @param test Boolean flag to indicate test mode
+     * Constructor initializing the deck and related structures for a table of any size.
+     * @param seats Number of hands to deal, from MIN_SEATS to MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
      */
-    public CreateDeck(boolean test) {
-        this();
-        String[] suits = {"D", "C", "H", "S"};
-        String[] faces = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
-
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 13; j++) {
-                deckArray[i][j] = new CreateCard(suits[i], faces[j]);
-            }
-        }
+    public CreateDeck(int seats) {
+        this.seats = checkSeats(seats);
+        result = new Player[seats];
+        deck = new int[CreateCard.DECK_SIZE];
+        deltCards = new int[seats * 5];
+        rows = 4;
+        cols = 13;
+        rankKeys = new long[seats];
+        unranked = new Player[seats];
     }
 
     /**
-     * Retrieves a deck from a GameMode object.
-     * @param mode The GameMode object containing the test array
+     * Constructor for testing purposes, initializes a full deck of cards.
+     * @param test Boolean flag to indicate test mode
      */
-    public void retrieveDeck(GameMode mode) {
-        System.arraycopy(mode.testArray, 0, deltCards, 0, 6);
+    public CreateDeck(boolean test) {
+        this(test, DEFAULT_SEATS);
     }
 
     /**
-     * Prints the current state of the deck to the console.
+     * Constructor initializing a full deck of cards for a table of any size.
+     * @param test Boolean flag to indicate test mode
+     * @param seats Number of hands to deal, from MIN_SEATS to MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
      */
-    public void retrieveCard() {
-        System.out.println("*** Shuffled 52 card deck: ");
-        for (int k = 0; k < rows; k++) {
-            for (int m = 0; m < cols; m++) {
-                System.out.print(deckArray[k][m].face + deckArray[k][m].suit + "  ");
-            }
-            System.out.println();
-        }
-    }
+    public CreateDeck(boolean test, int seats) {
+        this(seats);
+        int[] faces = {14, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13};
 
-    /**
-     * Shuffles the deck of cards.
-     */
-    public void shuffleDeck() {
-        List<CreateCard> flatDeck = new ArrayList<>();
-        for (CreateCard[] row : deckArray) {
-            flatDeck.addAll(Arrays.asList(row));
-        }
-        Collections.shuffle(flatDeck);
-        Iterator<CreateCard> it = flatDeck.iterator();
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                deckArray[i][j] = it.next();
+                deck[i * cols + j] = CreateCard.of(faces[j], i);
             }
         }
     }
 
     /**
-     * Prints the six dealt hands to the console.
+     * Constructor initializing a full deck of cards shuffled by the given random source.
+     * @param test Boolean flag to indicate test mode
+     * @param random The random source used by shuffleDeck (e.g., a seeded SplittableRandom
+     *               for reproducible deals, or RandomGeneratorFactory.of("Xoshiro256PlusPlus").create())
      */
-    public void printHands() {
-        System.out.println("*** Here are the six hands...");
-        for (String hand : deltCards) {
-            System.out.println(hand);
-        }
+    public CreateDeck(boolean test, RandomGenerator random) {
+        this(test);
+        this.random = random;
     }
 
     /**
-     * Deals six hands of five cards each from the deck.
+     * Checks that a table size is in range.
+     * @param seats Number of hands at the table
+     * @return The number of hands
+     * @throws IllegalArgumentException if the number of hands is out of range
      */
-    public void dealHands() {
-        String[] hands = new String[6];
-        int handIndex = 0;
-        StringBuilder currentHand = new StringBuilder();
-        int cardCount = 0;
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (cardCount >= 30) break;
-                currentHand.append(deckArray[i][j].face).append(deckArray[i][j].suit).append(" ");
-                cardCount++;
-                if (cardCount % 5 == 0) {
-                    hands[handIndex] = currentHand.toString().trim();
-                    handIndex++;
-                    currentHand = new StringBuilder();
-                }
-            }
-            if (cardCount >= 30) break;
+    public static int checkSeats(int seats) {
+        if (seats < MIN_SEATS || seats > MAX_SEATS) {
+            throw new IllegalArgumentException("Number of hands must be from " + MIN_SEATS + " to " + MAX_SEATS + ": " + seats);
         }
-
-        System.arraycopy(hands, 0, deltCards, 0, 6);
+        return seats;
     }
 
     /**
-     * Prints the remaining cards in the deck after dealing.
+     * @param seats Number of hands at the table
+     * @return The number written as a word (e.g., "six")
      */
-    public void remainingDeck() {
-        System.out.println("*** Here is what remains in the deck... ");
-        int count = 0;
-        for (int k = 0; k < rows; k++) {
-            for (int m = 0; m < cols; m++) {
-                if (count >= 30) {
-                    System.out.print(deckArray[k][m].suit + deckArray[k][m].face + "  ");
-                } else {
-                    count++;
-                }
-            }
-        }
-        System.out.println();
-
-        rankHands(deltCards);
+    public static String seatsName(int seats) {
+        return SEAT_NAMES[checkSeats(seats)];
     }
 
     /**
-     * Ranks the dealt hands by creating Player objects and evaluating each hand.
-     * @param arr Array of string representations of hands
+     * Sets the random source used by shuffleDeck.
+     * @param random The random source
      */
-    public void rankHands(String[] arr) {
-        for (int i = 0; i < 6; i++) {
-            Player currentCard = new Player();
-            currentCard.convertHand(arr[i]);
-            currentCard.setFinalScores();
-            result[i] = currentCard;
-        }
-        System.out.println();
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
     }
 
     /**
-     * Swaps two Player objects.
-     * @param a First Player object
-     * @param b Second Player object
+     * Sets a cache for rankHands to look hands up in before evaluating them.
+     * @param cache Cache of strengths by card mask, as made by EvaluationCache.ofHandStrengths,
+     *              or null to evaluate every hand
      */
-    public void swap(Player a, Player b) {
-        Player temp = new Player(a.hand, a.wordList, a.order);
-        a.hand = b.hand;
-        a.wordList = new ArrayList<>(b.wordList);
-        a.order = b.order;
-        b.hand = temp.hand;
-        b.wordList = new ArrayList<>(temp.wordList);
-        b.order = temp.order;
+    public void setCache(EvaluationCache cache) {
+        this.cache = cache;
     }
 
     /**
-     * Applies tiebreaker rules to rank hands of the same type.
+     * Retrieves a deck from a GameMode object.
+     * @param mode The GameMode object containing the test cards
+     * @throws IllegalArgumentException if the GameMode holds a different number of hands
      */
-    public void tieBreakers() {
-        for (int i = 0; i < 6; i++) {
-            for (int j = i + 1; j < 6; j++) {
-                if (result[i].order == result[j].order) {
-                    // Apply different tiebreaker rules based on hand type
-                    if (result[i].hand.equals("Straight Flush") || 
-                        result[i].hand.equals("Flush") || 
-                        result[i].hand.equals("Royal Straight Flush")) {
-                        
-                        // Tiebreaker for flush-based hands
-                        char suitI = result[i].wordList.get(result[i].wordList.size() - 1).charAt(result[i].wordList.get(result[i].wordList.size() - 1).length() - 1);
-                        char suitJ = result[j].wordList.get(result[j].wordList.size() - 1).charAt(result[j].wordList.get(result[j].wordList.size() - 1).length() - 1);
-                        
-                        if (rankSuits(suitI) < rankSuits(suitJ)) {
-                            swap(result[i], result[j]);
-                        } else if (rankSuits(suitI) == rankSuits(suitJ)) {
-                            if (getHighCard(result[i]) < getHighCard(result[j])) {
-                                swap(result[i], result[j]);
-                            }
-                        }
-                    } else if (result[i].hand.equals("Straight")) {
-                        // Tiebreaker for straights
-                        if (getHighCard(result[i]) < getHighCard(result[j])) {
-                            swap(result[i], result[j]);
-                        }
-                    } else if (result[i].hand.equals("Two Pair")) {
-                        // Tiebreaker for two pairs
-                        char suitI = getHighCardNI2P(result[i]);
-                        char suitJ = getHighCardNI2P(result[j]);
-
-                        if (rankSuits(suitI) < rankSuits(suitJ)) {
-                            swap(result[i], result[j]);
-                        } else if (rankSuits(suitI) == rankSuits(suitJ)) {
-                            if (suitI < suitJ) {
-                                swap(result[i], result[j]);
-                            }
-                        }
-                    } else if (result[i].hand.equals("Pair")) {
-                        // Tiebreaker for pairs
-                        char suitI = getHighCardNIP(result[i]);
-                        char suitJ = getHighCardNIP(result[j]);
-
-                        if (rankSuits(suitI) < rankSuits(suitJ)) {
-                            swap(result[i], result[j]);
-                        } else if (rankSuits(suitI) == rankSuits(suitJ)) {
-                            if (suitI < suitJ) {
-                                swap(result[i], result[j]);
-                            }
-                        }
-                    } else if (result[i].hand.equals("High Card")) {
-                        // Tiebreaker for high card
-                        char highCardI = getHighCard(result[i]);
-                        char highCardJ = getHighCard(result[j]);
-
-                        if (rankSuits(highCardI) < rankSuits(highCardJ)) {
-                            swap(result[i], result[j]);
-                        } else if (rankSuits(highCardI) == rankSuits(highCardJ)) {
-                            if (highCardI < highCardJ) {
-                                swap(result[i], result[j]);
-                            }
-                        }
-                    } else if (result[i].hand.equals("Three of a Kind")) {
-                        // Tiebreaker for three of a kind
-                        int rankI = getTOAKRank(result[i]);
-                        int rankJ = getTOAKRank(result[j]);
-
-                        if (rankI < rankJ) {
-                            swap(result[i], result[j]);
-                        } else if (rankI == rankJ) {
-                            List<Integer> kickersI = getKickers(result[i]);
-                            List<Integer> kickersJ = getKickers(result[j]);
-
-                            Collections.sort(kickersI, Collections.reverseOrder());
-                            Collections.sort(kickersJ, Collections.reverseOrder());
-
-                            for (int k = 0; k < kickersI.size(); k++) {
-                                if (kickersI.get(k) < kickersJ.get(k)) {
-                                    swap(result[i], result[j]);
-                                    break;
-                                } else if (kickersI.get(k) > kickersJ.get(k)) {
-                                    break;
-                                }
-                            }
-
-                            if (kickersI.equals(kickersJ)) {
-                                char suitI = getHighCardSuit(result[i]);
-                                char suitJ = getHighCardSuit(result[j]);
-
-                                if (rankSuits(suitI) < rankSuits(suitJ)) {
-                                    swap(result[i], result[j]);
-                                }
-                            }
-                        }
-                    } else if (result[i].hand.equals("Four of a Kind")) {
-                        // Tiebreaker for four of a kind
-                        int rankI = getFOAKRank(result[i]);
-                        int rankJ = getFOAKRank(result[j]);
-
-                        if (rankI < rankJ) {
-                            swap(result[i], result[j]);
-                        } else if (rankI == rankJ) {
-                            int kickerI = getKicker(result[i]);
-                            int kickerJ = getKicker(result[j]);
-                            if (kickerI < kickerJ) {
-                                swap(result[i], result[j]);
-                            }
-                        }
-                    } else if (result[i].hand.equals("Full House")) {
-                        // Tiebreaker for full house
-                        int rankI = getTOAKRank(result[i]);
-                        int rankJ = getTOAKRank(result[j]);
-
-                        if (rankI < rankJ) {
-                            swap(result[i], result[j]);
-                        } else if (rankI == rankJ) {
-                            List<Integer> kickersI = getKickers(result[i]);
-                            List<Integer> kickersJ = getKickers(result[j]);
-
-                            for (int k = 0; k < kickersI.size(); k++) {
-                                if (kickersI.get(k) < kickersJ.get(k)) {
-                                    swap(result[i], result[j]);
-                                    break;
-                                } else if (kickersI.get(k) > kickersJ.get(k)) {
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+    public void retrieveDeck(GameMode mode) {
+        if (mode.seats != seats) {
+            throw new IllegalArgumentException("Expected " + seats + " hands, found " + mode.seats);
         }
+        System.arraycopy(mode.testCards, 0, deltCards, 0, seats * 5);
     }
 
     /**
-     * Assigns a numerical rank to each suit for comparison purposes.
-     * @param suit The suit character
-     * @return The numerical rank of the suit
+     * Prints the current state of the deck to the console.
      */
-    private int rankSuits(char suit) {
-        switch (suit) {
-            case 'D': return 1;
-            case 'C': return 2;
-            case 'H': return 3;
-            case 'S': return 4;
-            default: return 0;
+    public void retrieveCard() {
+        long start = Metrics.start();
+        StringBuilder text = new StringBuilder("*** Shuffled 52 card deck: \n");
+        for (int k = 0; k < rows; k++) {
+            for (int m = 0; m < cols; m++) {
+                text.append(CreateCard.toString(deck[k * cols + m])).append("  ");
+            }
+            text.append('\n');
         }
+        System.out.print(text);
+        Metrics.stop(Phase.OUTPUT, start, deck.length);
     }
 
     /**
-     * Gets the suit of the highest card in a player's hand that isn't part of a pair or set.
-     * @param p The Player object
-     * @return The suit of the highest card
+     * Shuffles the deck of cards in place.
      */
-    public char getHighCardSuit(Player p) {
-        int highCard = -1;
-        char highSuit = ' ';
-        Map<String, Integer> countMap = new HashMap<>();
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
-        }
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            char suit = card.charAt(card.length() - 1);
-
-            if (countMap.get(face) == 1) {
-                int faceValue = getFaceValue(face);
-                if (faceValue > highCard) {
-                    highCard = faceValue;
-                    highSuit = suit;
-                }
-            }
-        }
-
-        return highSuit;
+    public void shuffleDeck() {
+        shuffleDeck(deck.length - 1);
     }
 
-/**
-     * Gets the kickers (unpaired cards) in a player's hand.
-     * @param p The Player object
-     * @return A list of face values of the kickers
+    /**
+     * Shuffles only the top of the deck in place (a partial Fisher-Yates shuffle).
+     * The top cards are a uniformly random draw from the whole deck, which is all
+     * dealing needs; the cards below them are left in no particular order.
+     * @param count Number of cards to shuffle onto the top of the deck
      */
-    public List<Integer> getKickers(Player p) {
-        Map<String, Integer> countMap = new HashMap<>();
-        List<Integer> kickers = new ArrayList<>();
-
-        // Count the occurrences of each face value
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
-        }
-
-        // Add face values of single cards (kickers) to the list
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            if (countMap.get(face) == 1) {
-                kickers.add(getFaceValue(face));
-            }
+    public void shuffleDeck(int count) {
+        long start = Metrics.start();
+        int size = deck.length;
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(size - i);
+            int temp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = temp;
         }
-
-        return kickers;
+        Metrics.stop(Phase.DEAL, start, count);
     }
 
-/**
-     * Gets the suit of the highest card in a two pair hand.
-     * @param p The Player object
-     * @return The suit of the highest card in the two pair
+    /**
+     * Prints the dealt hands to the console.
      */
-    public char getHighCardNI2P(Player p) {
-        int highCard = -1;
-        char highSuit = ' ';
-        Map<String, Integer> countMap = new HashMap<>();
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
-        }
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            char suit = card.charAt(card.length() - 1);
-            if (countMap.get(face) == 2) {
-                int faceValue = getFaceValue(face);
-                if (faceValue > highCard) {
-                    highCard = faceValue;
-                    highSuit = suit;
-                }
-            }
+    public void printHands() {
+        long start = Metrics.start();
+        StringBuilder text = new StringBuilder("*** Here are the " + seatsName(seats) + " hands...\n");
+        for (int i = 0; i < seats; i++) {
+            text.append(CreateCard.join(deltCards, i * 5, 5)).append('\n');
         }
-        return highSuit;
+        System.out.print(text);
+        Metrics.stop(Phase.OUTPUT, start, seats);
     }
 
     /**
-     * Gets the suit of the highest card in a pair hand.
-     * @param p The Player object
-     * @return The suit of the highest card not in the pair
+     * Deals the hands of five cards each from the top of the deck.
+     * The cards are copied into deltCards, so dealing allocates nothing;
+     * shuffleDeck(seats * 5) is enough to shuffle the cards dealt.
      */
-    public char getHighCardNIP(Player p) {
-        int highCard = -1;
-        char highSuit = ' ';
-        Map<String, Integer> countMap = new HashMap<>();
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
-        }
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            char suit = card.charAt(card.length() - 1);
-            if (countMap.get(face) == 1) {
-                int faceValue = getFaceValue(face);
-                if (faceValue > highCard) {
-                    highCard = faceValue;
-                    highSuit = suit;
-                }
-            }
-        }
-
-        return highSuit;
+    public void dealHands() {
+        long start = Metrics.start();
+        System.arraycopy(deck, 0, deltCards, 0, seats * 5);
+        Metrics.stop(Phase.DEAL, start, seats * 5);
     }
 
     /**
-     * Gets the suit of the highest card in a hand.
-     * @param p The Player object
-     * @return The suit of the highest card
+     * Prints the dealt hands street by street, as five card stud deals them: a card to
+     * each seat in turn, the first face down and the rest face up. After each street
+     * every seat shows the hand it has made and the categories it can still finish as,
+     * with the cards the other seats show out of play.
      */
-    public char getHighCard(Player p) {
-        Map<String, Integer> countMap = new HashMap<>();
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
+    public void printStreets() {
+        long start = Metrics.start();
+        StreetHand[] hands = new StreetHand[seats];
+        for (int i = 0; i < seats; i++) {
+            hands[i] = new StreetHand();
         }
-
-        int highCard = -1;
-        char highSuit = ' ';
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            if (countMap.get(face) == 1) {
-                int faceValue = getFaceValue(face);
-                if (faceValue > highCard) {
-                    highCard = faceValue;
-                    highSuit = card.charAt(card.length() - 1);
+        long shown = 0;
+        StringBuilder text = new StringBuilder("*** Here are the " + seatsName(seats) + " hands street by street...\n");
+        for (int street = 0; street < 5; street++) {
+            for (int i = 0; i < seats; i++) {
+                hands[i].add(deltCards[i * 5 + street]);
+                if (street > 0) {
+                    shown |= 1L << deltCards[i * 5 + street];
                 }
             }
-        }
-        return highSuit;
-    }
-
-    /**
-     * Gets the rank of the three of a kind in a hand.
-     * @param p The Player object
-     * @return The face value of the three of a kind
-     */
-    public int getTOAKRank(Player p) {
-        Map<String, Integer> countMap = new HashMap<>();
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
-        }
-
-        for (Map.Entry<String, Integer> entry : countMap.entrySet()) {
-            if (entry.getValue() == 3) {
-                return getFaceValue(entry.getKey());
+            text.append("Street ").append(street + 1).append('\n');
+            for (int i = 0; i < seats; i++) {
+                text.append("  ").append(hands[i]);
+                if (street < 4) {
+                    StringJoiner reachable = new StringJoiner(", ", " (can make ", ")");
+                    for (HandCategory category : hands[i].getReachable(shown & ~hands[i].getMask())) {
+                        reachable.add(category.label);
+                    }
+                    text.append(reachable);
+                }
+                text.append('\n');
             }
         }
-
-        return -1;
+        System.out.print(text);
+        Metrics.stop(Phase.OUTPUT, start, seats * 5);
     }
 
     /**
-     * Gets the rank of the four of a kind in a hand.
-     * @param p The Player object
-     * @return The face value of the four of a kind
+     * Prints the outs of each dealt hand: the cards left in the deck that would give it a
+     * better category or the lead as a sixth card, with the chance of drawing one of them
+     * next (see OutsAnalyzer).
      */
-    public int getFOAKRank(Player p) {
-        Map<String, Integer> countMap = new HashMap<>();
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
+    public void printOuts() {
+        long start = Metrics.start();
+        long remaining = 0;
+        for (int k = seats * 5; k < deck.length; k++) {
+            remaining |= 1L << deck[k];
         }
-
-        for (Map.Entry<String, Integer> entry : countMap.entrySet()) {
-            if (entry.getValue() == 4) {
-                return getFaceValue(entry.getKey());
-            }
+        OutsAnalyzer.SeatOuts[] outs = new OutsAnalyzer(seats).analyze(deltCards, 0, remaining);
+        StringBuilder text = new StringBuilder("*** Here are the outs of the " + seatsName(seats)
+                + " hands from the " + Long.bitCount(remaining) + " cards left...\n");
+        for (int i = 0; i < seats; i++) {
+            text.append(CreateCard.join(deltCards, i * 5, 5)).append(" - ").append(outs[i]).append('\n');
         }
-
-        return -1;
+        System.out.println(text);
+        Metrics.stop(Phase.OUTPUT, start, seats);
     }
 
     /**
-     * Gets the ranks of the two pairs in a two pair hand.
-     * @param p The Player object
-     * @return A list of the face values of the two pairs, sorted in descending order
+     * Prints the remaining cards in the deck after dealing.
      */
-    public List<Integer> getTwoPairRanks(Player p) {
-        List<Integer> ranks = new ArrayList<>();
-        Map<String, Integer> countMap = new HashMap<>();
-
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
-        }
-
-        for (Map.Entry<String, Integer> entry : countMap.entrySet()) {
-            if (entry.getValue() == 2) {
-                ranks.add(getFaceValue(entry.getKey()));
-            }
+    public void remainingDeck() {
+        long start = Metrics.start();
+        StringBuilder text = new StringBuilder("*** Here is what remains in the deck... \n");
+        for (int k = seats * 5; k < deck.length; k++) {
+            text.append(CreateCard.suitChar(deck[k])).append(CreateCard.face(deck[k])).append("  ");
         }
+        System.out.println(text);
+        Metrics.stop(Phase.OUTPUT, start, deck.length - seats * 5);
 
-        Collections.sort(ranks, Collections.reverseOrder());
-        return ranks;
+        rankHands(deltCards);
     }
 
     /**
-     * Gets the kicker (unpaired card) in a four of a kind hand.
-     * @param p The Player object
-     * @return The face value of the kicker
+     * Ranks the dealt hands by creating Player objects and evaluating each hand.
+     * @param arr Array of string representations of hands, one per seat
+     * @throws IllegalArgumentException if there is not one hand per seat or a card is invalid
      */
-    public int getKicker(Player p) {
-        Map<String, Integer> countMap = new HashMap<>();
-        for (String card : p.wordList) {
-            String face = card.substring(0, card.length() - 1);
-            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
+    public void rankHands(String[] arr) {
+        if (arr.length != seats) {
+            throw new IllegalArgumentException("Expected " + seats + " hands, found " + arr.length);
         }
-        for (Map.Entry<String, Integer> entry : countMap.entrySet()) {
-            if (entry.getValue() == 1) {
-                return getFaceValue(entry.getKey());
+        int[] cards = new int[arr.length * 5];
+        for (int i = 0; i < arr.length; i++) {
+            String[] words = arr[i].trim().split("\\s+");
+            for (int j = 0; j < 5; j++) {
+                cards[i * 5 + j] = CreateCard.parse(words[j]);
             }
         }
-        return -1;
+        rankHands(cards);
     }
 
     /**
-     * Converts a face value string to its corresponding integer value.
-     * @param faceString The string representation of the card's face value
-     * @return The integer value of the face
+     * Ranks the dealt hands by creating Player objects and evaluating each hand.
+     * @param cards Array holding the card ids, five per hand
      */
-    private int getFaceValue(String faceString) {
-        switch (faceString) {
-            case "J": return 11;
-            case "Q": return 12;
-            case "K": return 13;
-            case "A": return 14;
-            default: return Integer.parseInt(faceString);
+    public void rankHands(int[] cards) {
+        for (int i = 0; i < seats; i++) {
+            Player currentCard = new Player();
+            if (cache == null) {
+                currentCard.convertHand(cards, i * 5);
+            } else {
+                currentCard.convertHand(cards, i * 5, cache);
+            }
+            currentCard.setFinalScores();
+            result[i] = currentCard;
         }
+        System.out.println();
     }
 
     /**
-     * Sorts the player results based on their hand order.
+     * Sorts the player results from best to worst hand with rank keys of the strengths
+     * the legacy tiebreaker rules compare, in the order those rules gave (see
+     * HandStrength.sortLegacy), so hands they leave tied are not reordered by face value.
      */
     public void sortOrder() {
-        Arrays.sort(result, Comparator.comparingInt(p -> p.order));
+        long start = Metrics.start();
+        for (int i = 0; i < result.length; i++) {
+            rankKeys[i] = HandStrength.rankKey(HandStrength.legacyStrength(result[i].strength), i);
+            unranked[i] = result[i];
+        }
+        HandStrength.sortLegacy(rankKeys, result.length);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = unranked[HandStrength.rankKeyId(rankKeys[i])];
+        }
+        Metrics.stop(Phase.RANK, start, result.length);
     }
 
     /**
@@ -568,15 +337,13 @@ public class CreateDeck {
      */
     public void printResult() {
         sortOrder();
-        tieBreakers();
 
-        System.out.println("--- WINNING HAND ORDER ---");
+        long start = Metrics.start();
+        StringBuilder text = new StringBuilder("--- WINNING HAND ORDER ---\n");
         for (Player player : result) {
-            for (String word : player.wordList) {
-                System.out.print(word + " ");
-            }
-            System.out.println(" - " + player.hand);
+            text.append(player.cardString()).append("  - ").append(player.hand).append('\n');
         }
-        System.out.println();
+        System.out.println(text);
+        Metrics.stop(Phase.OUTPUT, start, result.length);
     }
 }
@@ -0,0 +1,177 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * The DealLog class keeps a replay log of runs dealt from DealStreams, so a table from
+ * any of them can be dealt again later. Each run is logged as its seed, table size,
+ * first deal index and number of tables, 25 bytes however many tables it dealt. The
+ * tables of the log are numbered in order across its runs, the same way a HandStore
+ * filled by the same runs numbers them.
+ *
+ * The file starts with 'P', 'K', 'D', 'L', the format version and DealStream.SHARD_DEALS,
+ * so a log is not replayed with a stream that would deal different tables.
+ */
+public class DealLog {
+    /** Format version written in the header */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 'P' << 24 | 'K' << 16 | 'D' << 8 | 'L';
+
+    /**
+     * The Run class is one logged run of tables.
+     */
+    public static final class Run {
+        public final long seed;
+        public final int seats;
+        /** Index in the stream of the run's first table */
+        public final long first;
+        /** Number of tables in the run */
+        public final long count;
+        /** Number of tables logged before the run */
+        public final long offset;
+
+        Run(long seed, int seats, long first, long count, long offset) {
+            this.seed = seed;
+            this.seats = seats;
+            this.first = first;
+            this.count = count;
+            this.offset = offset;
+        }
+
+        @Override
+        public String toString() {
+            return "seed " + seed + ", " + seats + " hands, deals " + first + " to " + (first + count - 1);
+        }
+    }
+
+    private final Path path;
+    private final List<Run> runs = new ArrayList<>();
+    private long tables;
+
+    /**
+     * Reads a log, or starts an empty one if the file does not exist.
+     *
+     * @param path The log file
+     * @throws IOException if the file cannot be read or is not a log this version can replay
+     */
+    public DealLog(Path path) throws IOException {
+        this.path = path;
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a deal log");
+            }
+            int version = in.readByte();
+            int shardDeals = in.readInt();
+            if (version != VERSION || shardDeals != DealStream.SHARD_DEALS) {
+                throw new IOException("Unsupported deal log version: " + version + " with shards of " + shardDeals);
+            }
+            while (in.available() > 0) {
+                long seed = in.readLong();
+                int seats = in.readByte();
+                long first = in.readLong();
+                long count = in.readLong();
+                add(seed, seats, first, count);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Deal log is cut short");
+        }
+    }
+
+    private void add(long seed, int seats, long first, long count) {
+        runs.add(new Run(seed, seats, first, count, tables));
+        tables += count;
+    }
+
+    /**
+     * Logs a run, writing it to the end of the file.
+     *
+     * @param deals The stream the run was dealt from
+     * @param first Index in the stream of the first table
+     * @param count Number of tables
+     * @throws IOException if the log cannot be written
+     * @throws IllegalArgumentException if first or count is negative
+     */
+    public void append(DealStream deals, long first, long count) throws IOException {
+        if (first < 0 || count < 0) {
+            throw new IllegalArgumentException("Invalid deals: " + count + " from " + first);
+        }
+        boolean empty = !Files.exists(path) || Files.size(path) == 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            if (empty) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(DealStream.SHARD_DEALS);
+            }
+            out.writeLong(deals.getSeed());
+            out.writeByte(deals.getSeats());
+            out.writeLong(first);
+            out.writeLong(count);
+        }
+        add(deals.getSeed(), deals.getSeats(), first, count);
+    }
+
+    /**
+     * @return The logged runs, oldest first
+     */
+    public List<Run> getRuns() {
+        return Collections.unmodifiableList(runs);
+    }
+
+    /**
+     * @return The number of tables in all the logged runs
+     */
+    public long getTables() {
+        return tables;
+    }
+
+    /**
+     * @param table Number of a table in the log, from 0
+     * @return The run that dealt it
+     * @throws IndexOutOfBoundsException if the log has no such table
+     */
+    public Run find(long table) {
+        if (table < 0 || table >= tables) {
+            throw new IndexOutOfBoundsException("Table " + table + " of " + tables);
+        }
+        int low = 0;
+        int high = runs.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (runs.get(middle).offset <= table) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return runs.get(low);
+    }
+
+    /**
+     * @param table Number of a table in the log, from 0
+     * @return Its index in the stream of its run
+     * @throws IndexOutOfBoundsException if the log has no such table
+     */
+    public long dealIndex(long table) {
+        Run run = find(table);
+        return run.first + table - run.offset;
+    }
+
+    /**
+     * Deals a logged table again.
+     *
+     * @param table Number of a table in the log, from 0
+     * @return The card ids of the table, five per seat in seat order
+     * @throws IndexOutOfBoundsException if the log has no such table
+     */
+    public int[] replay(long table) {
+        Run run = find(table);
+        int[] cards = new int[run.seats * 5];
+        new DealStream(run.seed, run.seats).deal(dealIndex(table), cards, 0);
+        return cards;
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.*;
+import java.util.random.*;
+import java.util.stream.*;
+
+/**
+ * The DealStream class deals a numbered sequence of tables from one seed, so any run
+ * can be repeated and any table in it dealt again on its own.
+ *
+ * The tables are grouped in shards of SHARD_DEALS. Each shard draws from its own
+ * Xoshiro256PlusPlus generator: the one seeded with the stream's seed, jumped ahead
+ * 2^128 numbers once per shard before it, so no two shards ever share a random number.
+ * Each table is dealt from a fresh ordered deck by a partial Fisher-Yates shuffle of
+ * its cards, so a table depends only on the seed, the shard and how many tables of the
+ * shard come before it. Shards are dealt in parallel and the tables come out the same
+ * as if they had been dealt one after another, on any number of cores.
+ *
+ * A DealStream must not be shared between threads; it runs its own parallel work.
+ */
+public class DealStream {
+    /** Tables dealt from each shard's generator */
+    public static final int SHARD_DEALS = 256;
+
+    /** Random number generator algorithm of the shards */
+    public static final String ALGORITHM = "Xoshiro256PlusPlus";
+
+    private final long seed;
+    private final int seats;
+    private final int cardsPerTable;
+
+    // Generator of the next shard dealt in order, so a run jumps once per shard
+    private RandomGenerator.JumpableGenerator next;
+    private long nextShard;
+
+    /**
+     * @param seed Seed of the stream
+     * @param seats Number of hands at each table, from CreateDeck.MIN_SEATS to CreateDeck.MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
+     */
+    public DealStream(long seed, int seats) {
+        this.seed = seed;
+        this.seats = CreateDeck.checkSeats(seats);
+        cardsPerTable = seats * 5;
+        next = start(seed);
+    }
+
+    private static RandomGenerator.JumpableGenerator start(long seed) {
+        return (RandomGenerator.JumpableGenerator) RandomGeneratorFactory.of(ALGORITHM).create(seed);
+    }
+
+    /**
+     * @return A seed taken from the system's entropy, for a run that is not repeating another
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * @return The seed of the stream
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The number of hands at each table
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * Deals a run of tables, a shard at a time on each core.
+     *
+     * @param first Index of the first table, from 0
+     * @param count Number of tables
+     * @param cards Array to write the card ids into, five per seat in seat order for each table
+     * @param from Index of the first card to write
+     * @throws IllegalArgumentException if first or count is negative
+     * @throws IndexOutOfBoundsException if the tables do not fit in the array
+     */
+    public void deal(long first, int count, int[] cards, int from) {
+        if (first < 0 || count < 0) {
+            throw new IllegalArgumentException("Invalid deals: " + count + " from " + first);
+        }
+        Objects.checkFromIndexSize(from, count * cardsPerTable, cards.length);
+        if (count == 0) {
+            return;
+        }
+
+        long start = Metrics.start();
+        long firstShard = first / SHARD_DEALS;
+        int shards = (int) ((first + count - 1) / SHARD_DEALS - firstShard + 1);
+        RandomGenerator[] generators = new RandomGenerator[shards];
+        for (int s = 0; s < shards; s++) {
+            generators[s] = generator(firstShard + s);
+        }
+
+        IntStream.range(0, shards).parallel().forEach(s -> {
+            long shardStart = (firstShard + s) * SHARD_DEALS;
+            long begin = Math.max(first, shardStart);
+            long end = Math.min(first + count, shardStart + SHARD_DEALS);
+            int[] deck = new int[CreateCard.DECK_SIZE];
+            int[] skipped = new int[cardsPerTable];
+
+            // Tables of the shard before the first one still use up random numbers
+            for (long t = shardStart; t < begin; t++) {
+                dealTable(generators[s], deck, skipped, 0);
+            }
+            for (long t = begin; t < end; t++) {
+                dealTable(generators[s], deck, cards, from + (int) (t - first) * cardsPerTable);
+            }
+        });
+        Metrics.stop(Phase.DEAL, start, count);
+    }
+
+    /**
+     * Deals one table again.
+     *
+     * @param index Index of the table, from 0
+     * @param cards Array to write the card ids into, five per seat in seat order
+     * @param from Index of the first card to write
+     * @throws IllegalArgumentException if the index is negative
+     */
+    public void deal(long index, int[] cards, int from) {
+        deal(index, 1, cards, from);
+    }
+
+    /**
+     * @return A copy of the generator a shard starts with
+     */
+    private RandomGenerator generator(long shard) {
+        if (shard < nextShard) {
+            next = start(seed);
+            nextShard = 0;
+        }
+        for (; nextShard < shard; nextShard++) {
+            next.jump();
+        }
+        return next.copy();
+    }
+
+    /**
+     * Shuffles the cards of one table onto the top of an ordered deck and copies them out.
+     */
+    private void dealTable(RandomGenerator random, int[] deck, int[] cards, int at) {
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        for (int i = 0; i < cardsPerTable; i++) {
+            int j = i + random.nextInt(deck.length - i);
+            int card = deck[j];
+            deck[j] = deck[i];
+            deck[i] = card;
+            cards[at + i] = card;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * The EquityResult class holds how often each seat won or tied over a number of deals.
+ * A seat wins a deal when its hand beats every other under the legacy tiebreaker rules
+ * a table is ranked by (see HandStrength.legacyStrength), and ties when those rules
+ * leave it equal to the best of the others.
+ */
+public final class EquityResult {
+    private final long[] wins;
+    private final long[] ties;
+    private final long deals;
+    private final long elapsedNanos;
+
+    /**
+     * @param wins Number of deals won by each seat
+     * @param ties Number of deals tied by each seat
+     * @param deals Number of deals counted
+     * @param elapsedNanos Time taken to count them
+     */
+    EquityResult(long[] wins, long[] ties, long deals, long elapsedNanos) {
+        this.wins = wins.clone();
+        this.ties = ties.clone();
+        this.deals = deals;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The number of seats
+     */
+    public int getSeats() {
+        return wins.length;
+    }
+
+    /**
+     * @return The number of deals counted
+     */
+    public long getDeals() {
+        return deals;
+    }
+
+    /**
+     * @return The time taken, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @param seat The seat index
+     * @return The number of deals the seat won outright
+     */
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    /**
+     * @param seat The seat index
+     * @return The number of deals the seat tied for the best hand
+     */
+    public long getTies(int seat) {
+        return ties[seat];
+    }
+
+    /**
+     * @param seat The seat index
+     * @return The percentage of deals the seat won outright
+     */
+    public double winPercent(int seat) {
+        return deals == 0 ? 0 : 100.0 * wins[seat] / deals;
+    }
+
+    /**
+     * @param seat The seat index
+     * @return The percentage of deals the seat tied for the best hand
+     */
+    public double tiePercent(int seat) {
+        return deals == 0 ? 0 : 100.0 * ties[seat] / deals;
+    }
+
+    /**
+     * Formats the result with one line per seat.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("--- EQUITY OVER ").append(deals).append(" DEALS ---\n");
+        for (int seat = 0; seat < wins.length; seat++) {
+            text.append(String.format("Seat %d: win %6.2f%%  tie %6.2f%%%n",
+                    seat + 1, winPercent(seat), tiePercent(seat)));
+        }
+        return text.toString();
+    }
+}
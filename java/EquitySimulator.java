@@ -0,0 +1,234 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The EquitySimulator class estimates each seat's chance of winning when only some
+ * of the cards are known. It deals the unknown cards from the remaining deck many
+ * times, ranks every deal, and counts wins and ties per seat.
+ *
+ * A deal is won as a table is: hands are compared by HandStrength.legacyStrength,
+ * the legacy tiebreaker rules WINNING HAND ORDER is ranked by, so the seat credited
+ * with a win is the one that table would put first. Hands those rules leave equal
+ * tie, even though the table still has to list one of them first.
+ *
+ * The deals are split across all cores with fork/join. Each task draws from its own
+ * SplittableRandom, split from the one seeded by the caller, so a run with a given
+ * seed and deal count always gives the same result.
+ */
+public class EquitySimulator {
+    /** Deals a task runs before it stops splitting */
+    private static final long CHUNK = 1 << 14;
+
+    /** Most tasks a run is split into, so a large deal count with a time budget stays cheap to split */
+    private static final int MAX_TASKS = 1 << 12;
+
+    /** Deals between checks of the time budget */
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private final int[][] knownCards;
+    private final int[] remaining;
+    private final int unknownCount;
+
+    /**
+     * Creates a simulator with the known cards of each seat.
+     *
+     * @param knownCards Card ids known for each seat, in dealt order (up to five per seat)
+     * @throws IllegalArgumentException if a seat has more than five cards or a card appears twice
+     */
+    public EquitySimulator(int[][] knownCards) {
+        this(knownCards, new int[0]);
+    }
+
+    /**
+     * Creates a simulator with the known cards of each seat and cards that are out of play.
+     *
+     * @param knownCards Card ids known for each seat, in dealt order (up to five per seat)
+     * @param deadCards Card ids that are not in any seat's hand and cannot be dealt
+     * @throws IllegalArgumentException if a seat has more than five cards or a card appears twice
+     */
+    public EquitySimulator(int[][] knownCards, int[] deadCards) {
+        this.knownCards = new int[knownCards.length][];
+        long used = 0;
+        int unknown = 0;
+
+        for (int seat = 0; seat < knownCards.length; seat++) {
+            if (knownCards[seat].length > 5) {
+                throw new IllegalArgumentException("Seat " + (seat + 1) + " has more than five cards");
+            }
+            this.knownCards[seat] = knownCards[seat].clone();
+            used = markUsed(used, knownCards[seat]);
+            unknown += 5 - knownCards[seat].length;
+        }
+        used = markUsed(used, deadCards);
+
+        remaining = new int[CreateCard.DECK_SIZE - Long.bitCount(used)];
+        int next = 0;
+        for (int card = 0; card < CreateCard.DECK_SIZE; card++) {
+            if ((used & (1L << card)) == 0) {
+                remaining[next++] = card;
+            }
+        }
+        if (unknown > remaining.length) {
+            throw new IllegalArgumentException("Not enough cards left to deal " + unknown + " cards");
+        }
+        unknownCount = unknown;
+    }
+
+    static long markUsed(long used, int[] cards) {
+        for (int card : cards) {
+            if ((used & (1L << card)) != 0) {
+                throw new IllegalArgumentException("Card dealt twice: " + CreateCard.toString(card));
+            }
+            used |= 1L << card;
+        }
+        return used;
+    }
+
+    /**
+     * @return The number of seats
+     */
+    public int getSeats() {
+        return knownCards.length;
+    }
+
+    /**
+     * @return The card ids left in the deck to deal the unknown cards from
+     */
+    public int[] getRemainingDeck() {
+        return remaining.clone();
+    }
+
+    /**
+     * Runs the simulation until the deal count or the time budget is used up.
+     *
+     * @param deals Maximum number of deals
+     * @param timeBudgetNanos Maximum running time in nanoseconds, or 0 for no limit
+     * @param seed Seed of the random number generator
+     * @return The win and tie counts of every seat
+     */
+    public EquityResult run(long deals, long timeBudgetNanos, long seed) {
+        long start = System.nanoTime();
+        long deadline = timeBudgetNanos > 0 ? start + timeBudgetNanos : Long.MAX_VALUE;
+        int seats = knownCards.length;
+
+        long[] counts;
+        if (unknownCount == 0) {
+            // Every card is known, so one deal settles it
+            counts = new long[2 * seats + 1];
+            new SimulationTask(0, 1, 1, 1, new SplittableRandom(seed), deadline).simulate(counts, 1);
+        } else {
+            int tasks = (int) Math.min(MAX_TASKS, deals / CHUNK + 1);
+            counts = ForkJoinPool.commonPool().invoke(
+                    new SimulationTask(0, tasks, tasks, deals, new SplittableRandom(seed), deadline));
+        }
+
+        return new EquityResult(Arrays.copyOfRange(counts, 0, seats),
+                Arrays.copyOfRange(counts, seats, 2 * seats), counts[2 * seats], System.nanoTime() - start);
+    }
+
+    /**
+     * Runs the simulation for a fixed number of deals.
+     *
+     * @param deals Number of deals
+     * @param seed Seed of the random number generator
+     * @return The win and tie counts of every seat
+     */
+    public EquityResult run(long deals, long seed) {
+        return run(deals, 0, seed);
+    }
+
+    /**
+     * Fork/join task running the deals of a range of leaf tasks. The deals are shared out
+     * evenly between a fixed number of leaves, so the result does not depend on the core count.
+     * Its result holds the wins of each seat, then the ties of each seat, then the number of deals run.
+     */
+    private class SimulationTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, tasks;
+        private final long deals;
+        private final SplittableRandom random;
+        private final long deadline;
+
+        SimulationTask(int from, int to, int tasks, long deals, SplittableRandom random, long deadline) {
+            this.from = from;
+            this.to = to;
+            this.tasks = tasks;
+            this.deals = deals;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from == 1) {
+                long[] counts = new long[2 * knownCards.length + 1];
+                simulate(counts, deals / tasks + (from < deals % tasks ? 1 : 0));
+                return counts;
+            }
+
+            int middle = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(from, middle, tasks, deals, random.split(), deadline);
+            SimulationTask right = new SimulationTask(middle, to, tasks, deals, random, deadline);
+            left.fork();
+            long[] counts = right.compute();
+            long[] leftCounts = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+
+        /**
+         * Runs deals with this task's random numbers, adding them to the counts.
+         */
+        void simulate(long[] counts, long deals) {
+            int seats = knownCards.length;
+            int[] deck = remaining.clone();
+            int[] hands = new int[seats * 5];
+            int[] strengths = new int[seats];
+
+            for (int seat = 0; seat < seats; seat++) {
+                System.arraycopy(knownCards[seat], 0, hands, seat * 5, knownCards[seat].length);
+            }
+
+            long done = 0;
+            while (done < deals) {
+                if ((done & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                    break;
+                }
+
+                // Partial Fisher-Yates: only the cards that are dealt get shuffled
+                int next = 0;
+                for (int seat = 0; seat < seats; seat++) {
+                    for (int k = knownCards[seat].length; k < 5; k++) {
+                        int j = next + random.nextInt(deck.length - next);
+                        int card = deck[j];
+                        deck[j] = deck[next];
+                        deck[next++] = card;
+                        hands[seat * 5 + k] = card;
+                    }
+                }
+
+                int best = Integer.MIN_VALUE;
+                int bestCount = 0;
+                for (int seat = 0; seat < seats; seat++) {
+                    strengths[seat] = HandStrength.legacyStrength(HandStrength.of(hands, seat * 5));
+                    if (strengths[seat] > best) {
+                        best = strengths[seat];
+                        bestCount = 1;
+                    } else if (strengths[seat] == best) {
+                        bestCount++;
+                    }
+                }
+                for (int seat = 0; seat < seats; seat++) {
+                    if (strengths[seat] == best) {
+                        counts[bestCount == 1 ? seat : seats + seat]++;
+                    }
+                }
+                done++;
+            }
+            counts[2 * seats] += done;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * The EvaluationCache class remembers the results of an evaluation function for
+ * hands given as canonical card masks (one bit per card id, so the same cards give
+ * the same key in any order).
+ *
+ * The cache holds a fixed number of entries in primitive arrays, split into sets of
+ * eight. A key can only live in the set its hash picks, and when that set is full
+ * the EvictionPolicy picks the entry to drop. Each group of sets has its own lock,
+ * so threads working on different hands rarely wait for each other, and one cache
+ * can be shared by every thread of a run.
+ *
+ * Hit, miss and eviction counts are kept so the cache can be sized for a workload.
+ */
+public class EvaluationCache {
+    /** Entries in each set */
+    private static final int WAYS = 8;
+
+    /** Number of locks the sets are shared between */
+    private static final int LOCKS = 64;
+
+    private final LongToIntFunction evaluator;
+    private final EvictionPolicy policy;
+    private final int setMask;
+    private final long[] keys;
+    private final int[] values;
+    private final long[] stamps;    // when each entry was last used (LRU) or added (FIFO), 0 if empty
+    private final long[] clocks = new long[LOCKS];
+    private final Object[] locks = new Object[LOCKS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity Most entries to hold; rounded up to a power of two of at least eight
+     * @param policy How to pick the entry to drop when a set is full
+     * @param evaluator Works out the value of a key the cache does not hold
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30
+     */
+    public EvaluationCache(int capacity, EvictionPolicy policy, LongToIntFunction evaluator) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Cache capacity must be from 1 to 2^30: " + capacity);
+        }
+        int size = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        this.policy = policy;
+        this.evaluator = evaluator;
+        setMask = size / WAYS - 1;
+        keys = new long[size];
+        values = new int[size];
+        stamps = new long[size];
+        for (int i = 0; i < LOCKS; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Creates a cache of five card hand strengths in the order free form given by
+     * HandStrength.ofMask; see HandEvaluator.evaluate for applying the dealt order.
+     * @param capacity Most entries to hold
+     * @param policy How to pick the entry to drop when a set is full
+     * @return The cache
+     */
+    public static EvaluationCache ofHandStrengths(int capacity, EvictionPolicy policy) {
+        return new EvaluationCache(capacity, policy, HandStrength::ofMask);
+    }
+
+    /**
+     * Gets the value of a key, working it out and storing it if the cache does not hold it.
+     *
+     * @param key A canonical card mask
+     * @return The value of the evaluation function for the key
+     */
+    public int get(long key) {
+        int set = (int) mix(key) & setMask;
+        int lock = set & (LOCKS - 1);
+        int first = set * WAYS;
+
+        synchronized (locks[lock]) {
+            long now = ++clocks[lock];
+            int victim = first;
+            for (int i = first; i < first + WAYS; i++) {
+                if (stamps[i] != 0 && keys[i] == key) {
+                    if (policy == EvictionPolicy.LRU) {
+                        stamps[i] = now;
+                    }
+                    hits.increment();
+                    return values[i];
+                }
+                if (stamps[i] < stamps[victim]) {
+                    victim = i;
+                }
+            }
+
+            misses.increment();
+            if (stamps[victim] != 0) {
+                if (policy == EvictionPolicy.RANDOM) {
+                    victim = first + ThreadLocalRandom.current().nextInt(WAYS);
+                }
+                evictions.increment();
+            }
+            int value = evaluator.applyAsInt(key);
+            keys[victim] = key;
+            values[victim] = value;
+            stamps[victim] = now;
+            return value;
+        }
+    }
+
+    /**
+     * Spreads the bits of a card mask so nearby hands land in different sets.
+     */
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
+    }
+
+    /**
+     * Drops every entry and resets the counts.
+     */
+    public void clear() {
+        for (int lock = 0; lock < LOCKS; lock++) {
+            synchronized (locks[lock]) {
+                for (int set = lock; set <= setMask; set += LOCKS) {
+                    java.util.Arrays.fill(stamps, set * WAYS, set * WAYS + WAYS, 0);
+                }
+                clocks[lock] = 0;
+            }
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * @return The most entries the cache holds
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return The eviction policy
+     */
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return The number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to be worked out
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries dropped to make room
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The share of lookups answered from the cache, from 0 to 1
+     */
+    public double hitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return The hit, miss and eviction counts on one line
+     */
+    @Override
+    public String toString() {
+        return String.format("Cache: %d entries (%s), %d hits, %d misses, %.1f%% hit rate, %d evictions",
+                getCapacity(), policy, getHits(), getMisses(), hitRate() * 100, getEvictions());
+    }
+}
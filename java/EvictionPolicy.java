@@ -0,0 +1,27 @@
+/**
+ * The EvictionPolicy enum lists how an EvaluationCache picks the entry to drop
+ * when a new hand needs room.
+ */
+public enum EvictionPolicy {
+    /** Drop the entry used longest ago */
+    LRU,
+    /** Drop the entry added longest ago, however often it was used since */
+    FIFO,
+    /** Drop an entry picked at random */
+    RANDOM;
+
+    /**
+     * Finds a policy by name, ignoring case (e.g., "lru").
+     * @param name Name of the policy
+     * @return The policy
+     * @throws IllegalArgumentException if there is no policy with the name
+     */
+    public static EvictionPolicy parse(String name) {
+        for (EvictionPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Invalid eviction policy: " + name);
+    }
+}
@@ -0,0 +1,762 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The ExactEquity class works out each seat's exact chance of winning when only some
+ * of the cards are known, by going through every way the unseen cards can be dealt.
+ * Where EquitySimulator samples deals, this counts all of them, so the result is the
+ * same on every run and can settle a dispute.
+ *
+ * A deal is the unknown cards of every seat in dealt order, as EquitySimulator deals
+ * them, so each deal is equally likely. The order only matters to two pair hands,
+ * whose suit rule looks at the first dealt card of the higher pair; when both cards
+ * of that pair are unknown, half of the orders put each of them first.
+ *
+ * A deal is won as a table is: hands are compared by HandStrength.legacyStrength, the
+ * legacy tiebreaker rules WINNING HAND ORDER is ranked by, so the seat credited with a
+ * win is the one that table would put first, and hands those rules leave equal tie, as
+ * in EquitySimulator.
+ *
+ * Every completion of each seat's hand is evaluated once, before the deals are counted,
+ * and kept sorted from strongest to weakest, so the count itself is lookups and
+ * bitmask tests. Seats are then filled in one after another, strongest first:
+ * <ul>
+ *   <li>a seat whose best completion cannot reach the strongest hand so far can neither
+ *       win nor tie, so its completions are counted with a formula and not enumerated;</li>
+ *   <li>the last two seats are counted in one pass over the completions of the first of
+ *       them, keeping the weights of the last seat's completions that beat or reach the
+ *       best hand so far for every set of cards they hold (see Enumeration.fillPair), so
+ *       no pair of their completions is gone through;</li>
+ *   <li>when only the last seat is left, its completions as strong as the best hand so
+ *       far are counted from an index of the completions holding each set of cards (see
+ *       SubsetIndex), or gone through when there are only a few; every other one loses
+ *       to the best hand, and those are counted with a formula too.</li>
+ * </ul>
+ * The completions of the first seat that has any are shared out between fork/join
+ * tasks, unless the sweep of the last two seats counts every deal by itself.
+ *
+ * Suit isomorphism (see SuitIsomorphism) does not shorten the count: the suit tie break
+ * rules rank D &lt; C &lt; H &lt; S, so a deal and the same deal with two suits swapped can
+ * have different winners, and each must be counted on its own.
+ *
+ * The time taken grows quickly with the number of unknown cards. On one core, heads-up
+ * spots take milliseconds up to three unknown cards a seat and about half a second with
+ * four; three seats take about a millisecond with one unknown card each, a few tens of
+ * milliseconds with two, and around ten seconds with three. The first run in a process
+ * also builds the HandStrength table. More seats or cards than that can take hours, and
+ * four or five per seat at a full table would take years.
+ */
+public class ExactEquity {
+    /** Completions of the first enumerated seat a task goes through before it stops splitting */
+    private static final int CHUNK = 16;
+
+    /** Most list entries a SubsetIndex may hold; past this the last seat's completions are gone through instead */
+    private static final int INDEX_LIMIT = 1 << 24;
+
+    /** Completions the last seat goes through in the time the index takes to look up one set of dealt cards */
+    private static final int LOOKUP_COST = 16;
+
+    /** Most sets of cards the last two seats may be counted over (see Enumeration.fillPair) */
+    private static final int SWEEP_LIMIT = 1 << 18;
+
+    /** Most set numbers kept for the completions of the last two seats */
+    private static final int NUMBERS_LIMIT = 1 << 23;
+
+    private final int[][] knownCards;
+    private final int[] remaining;
+    private final long deals;
+
+    /**
+     * Creates a calculator with the known cards of each seat.
+     *
+     * @param knownCards Card ids known for each seat, in dealt order (up to five per seat)
+     * @throws IllegalArgumentException if a seat has more than five cards, a card appears
+     *                                  twice, or the deals are too many to count
+     */
+    public ExactEquity(int[][] knownCards) {
+        this(knownCards, new int[0]);
+    }
+
+    /**
+     * Creates a calculator with the known cards of each seat and cards that are out of
+     * play, such as the cards not in CreateDeck's remaining deck.
+     *
+     * @param knownCards Card ids known for each seat, in dealt order (up to five per seat)
+     * @param deadCards Card ids that are not in any seat's hand and cannot be dealt
+     * @throws IllegalArgumentException if a seat has more than five cards, a card appears
+     *                                  twice, or the deals are too many to count
+     */
+    public ExactEquity(int[][] knownCards, int[] deadCards) {
+        this.knownCards = new int[knownCards.length][];
+        long used = 0;
+        int unknown = 0;
+
+        for (int seat = 0; seat < knownCards.length; seat++) {
+            if (knownCards[seat].length > 5) {
+                throw new IllegalArgumentException("Seat " + (seat + 1) + " has more than five cards");
+            }
+            this.knownCards[seat] = knownCards[seat].clone();
+            used = EquitySimulator.markUsed(used, knownCards[seat]);
+            unknown += 5 - knownCards[seat].length;
+        }
+        used = EquitySimulator.markUsed(used, deadCards);
+
+        remaining = new int[CreateCard.DECK_SIZE - Long.bitCount(used)];
+        int next = 0;
+        for (int card = 0; card < CreateCard.DECK_SIZE; card++) {
+            if ((used & (1L << card)) == 0) {
+                remaining[next++] = card;
+            }
+        }
+        if (unknown > remaining.length) {
+            throw new IllegalArgumentException("Not enough cards left to deal " + unknown + " cards");
+        }
+        try {
+            deals = orderings(remaining.length, unknown);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Too many deals to count: " + unknown + " cards from " + remaining.length);
+        }
+    }
+
+    /**
+     * @return The number of seats
+     */
+    public int getSeats() {
+        return knownCards.length;
+    }
+
+    /**
+     * @return The number of deals of the unknown cards, each counted once
+     */
+    public long getDeals() {
+        return deals;
+    }
+
+    /**
+     * Counts the wins and ties of every seat over every deal.
+     *
+     * @return The exact win and tie counts of every seat
+     */
+    public EquityResult run() {
+        long start = System.nanoTime();
+        int seats = knownCards.length;
+
+        // Evaluate every completion of every seat once, in parallel across the seats
+        Completions[] completions = new Completions[seats];
+        Arrays.parallelSetAll(completions, seat -> new Completions(knownCards[seat], remaining));
+
+        // Seats with every card known go first, as they settle the best hand without branching
+        Integer[] order = new Integer[seats];
+        Arrays.setAll(order, seat -> seat);
+        Arrays.sort(order, Comparator.comparing((Integer seat) -> completions[seat].unknown > 0)
+                .thenComparing(seat -> -completions[seat].best()));
+        Completions[] ordered = new Completions[seats];
+        int[] seatOf = new int[seats];
+        int first = 0;
+        for (int level = 0; level < seats; level++) {
+            ordered[level] = completions[order[level]];
+            seatOf[level] = order[level];
+            if (ordered[level].unknown == 0) {
+                first++;
+            }
+        }
+
+        long[] counts = new long[2 * seats];
+        Completions last = ordered[seats - 1];
+        CardSets sets = last.unknown > 0 ? new CardSets(last.unknown, remaining) : null;
+        boolean sweep = first < seats - 1 && CardSets.count(last.unknown, remaining.length, SWEEP_LIMIT) >= 0
+                && ((long) ordered[seats - 2].size() << ordered[seats - 2].unknown)
+                    + ((long) last.size() << last.unknown) <= NUMBERS_LIMIT;
+        // With only the last two seats to fill in, the sweep counts them and the index would go unused
+        SubsetIndex index = sets != null && !(sweep && first == seats - 2)
+                && (long) last.size() << last.unknown <= INDEX_LIMIT ? new SubsetIndex(last, sets) : null;
+        Enumeration enumeration = new Enumeration(ordered, seatOf, remaining.length, index, sweep ? sets : null);
+        int best = -1;
+        long holders = 0;
+        for (int level = 0; level < first; level++) {
+            int strength = ordered[level].strengths[0];
+            holders = strength > best ? 1L << level : strength == best ? holders | 1L << level : holders;
+            best = Math.max(best, strength);
+        }
+        if (first == seats) {
+            enumeration.credit(holders, 1, counts);
+        } else if (sweep && first == seats - 2) {
+            // The two seats left are counted in one sweep, which does not split
+            enumeration.fill(first, 0, remaining.length, best, holders, 1, 0, counts);
+        } else {
+            int size = ordered[first].size();
+            counts = ForkJoinPool.commonPool().invoke(new EnumerationTask(enumeration, first, 0, size, best, holders));
+        }
+
+        return new EquityResult(Arrays.copyOfRange(counts, 0, seats),
+                Arrays.copyOfRange(counts, seats, 2 * seats), deals, System.nanoTime() - start);
+    }
+
+    /**
+     * @return The number of ways to deal count cards in order from n, n! / (n - count)!
+     * @throws ArithmeticException if it does not fit in a long
+     */
+    static long orderings(int n, int count) {
+        long ways = 1;
+        for (int i = 0; i < count; i++) {
+            ways = Math.multiplyExact(ways, n - i);
+        }
+        return ways;
+    }
+
+    /**
+     * The Completions class holds every way to complete one seat's hand from the cards
+     * left, strongest first. Each completion holds the mask of the cards it adds, the
+     * legacyStrength of the hand and the number of dealt orders of those cards giving it.
+     */
+    private static final class Completions {
+        final int unknown;
+        final long[] masks;
+        final int[] strengths;
+        final int[] weights;
+
+        Completions(int[] known, int[] remaining) {
+            unknown = 5 - known.length;
+            int orders = (int) orderings(unknown, unknown);
+            int combinations = (int) (orderings(remaining.length, unknown) / orders);
+            long[] allMasks = new long[2 * combinations];
+            int[] allStrengths = new int[2 * combinations];
+            int[] allWeights = new int[2 * combinations];
+
+            int[] hand = new int[5];
+            System.arraycopy(known, 0, hand, 0, known.length);
+            int[] picks = new int[unknown];
+            for (int i = 0; i < unknown; i++) {
+                picks[i] = i;
+            }
+            int size = 0;
+            for (int c = 0; c < combinations; c++) {
+                long mask = 0;
+                for (int i = 0; i < unknown; i++) {
+                    hand[known.length + i] = remaining[picks[i]];
+                    mask |= 1L << remaining[picks[i]];
+                }
+                int strength = HandStrength.of(hand, 0);
+                int other = swappedPairStrength(hand, known.length, strength);
+                if (other < 0) {
+                    allWeights[size] = orders;
+                } else {
+                    allWeights[size] = orders / 2;
+                    allMasks[size + 1] = mask;
+                    allStrengths[size + 1] = HandStrength.legacyStrength(other);
+                    allWeights[size + 1] = orders / 2;
+                }
+                allMasks[size] = mask;
+                allStrengths[size] = HandStrength.legacyStrength(strength);
+                size += other < 0 ? 1 : 2;
+
+                // Next combination of positions in the remaining cards
+                int i = unknown - 1;
+                while (i >= 0 && picks[i] == remaining.length - unknown + i) {
+                    i--;
+                }
+                if (i >= 0) {
+                    picks[i]++;
+                    for (int j = i + 1; j < unknown; j++) {
+                        picks[j] = picks[j - 1] + 1;
+                    }
+                }
+            }
+
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = HandStrength.rankKey(allStrengths[i], i);
+            }
+            Arrays.sort(keys);
+            masks = new long[size];
+            strengths = new int[size];
+            weights = new int[size];
+            for (int i = 0; i < size; i++) {
+                int from = HandStrength.rankKeyId(keys[i]);
+                masks[i] = allMasks[from];
+                strengths[i] = allStrengths[from];
+                weights[i] = allWeights[from];
+            }
+        }
+
+        /**
+         * Finds the strength of a two pair hand dealt with the unknown card of the higher
+         * pair that comes second put first instead.
+         *
+         * @return The strength, or -1 if the hand is not two pair or only one order gives it
+         */
+        private static int swappedPairStrength(int[] hand, int known, int strength) {
+            if (HandStrength.category(strength) != HandCategory.TWO_PAIR) {
+                return -1;
+            }
+            int high = (strength >>> 8) & 15;
+            int firstCard = -1;
+            for (int i = 0; i < 5; i++) {
+                if (CreateCard.faceValue(hand[i]) != high) {
+                    continue;
+                } else if (i < known) {
+                    return -1;
+                } else if (firstCard < 0) {
+                    firstCard = i;
+                } else {
+                    int[] swapped = hand.clone();
+                    swapped[firstCard] = hand[i];
+                    swapped[i] = hand[firstCard];
+                    return HandStrength.of(swapped, 0);
+                }
+            }
+            return -1;
+        }
+
+        int size() {
+            return strengths.length;
+        }
+
+        int best() {
+            return strengths[0];
+        }
+    }
+
+    /**
+     * The CardSets class numbers the sets of up to a given number of the remaining cards,
+     * so counts kept for each set can live in a plain array: sets are numbered by size,
+     * then by the colex rank of the positions of their cards in the remaining cards.
+     */
+    private static final class CardSets {
+        final int maxSize;
+        private final int[] position = new int[CreateCard.DECK_SIZE];
+        // choose[k][n] is the number of ways to pick k cards out of n
+        final int[][] choose;
+        // Number of the first set of each size, then the number of sets
+        final int[] sizeStart;
+
+        CardSets(int maxSize, int[] remaining) {
+            this.maxSize = maxSize;
+            int n = remaining.length;
+            for (int i = 0; i < n; i++) {
+                position[remaining[i]] = i;
+            }
+            choose = new int[maxSize + 1][n + 1];
+            for (int m = 0; m <= n; m++) {
+                choose[0][m] = 1;
+                for (int k = 1; k <= maxSize; k++) {
+                    choose[k][m] = m == 0 ? 0 : choose[k][m - 1] + choose[k - 1][m - 1];
+                }
+            }
+            sizeStart = new int[maxSize + 2];
+            for (int k = 0; k <= maxSize; k++) {
+                sizeStart[k + 1] = sizeStart[k] + choose[k][n];
+            }
+        }
+
+        /**
+         * @return The number of sets, or -1 if there are more than limit
+         */
+        static long count(int maxSize, int cards, long limit) {
+            long sets = 0;
+            long ways = 1;
+            for (int k = 0; k <= maxSize && sets <= limit; k++) {
+                sets += ways;
+                ways = ways * (cards - k) / (k + 1);
+            }
+            return sets <= limit ? sets : -1;
+        }
+
+        int size() {
+            return sizeStart[maxSize + 1];
+        }
+
+        /**
+         * Writes the positions in the remaining cards of the cards of a mask, lowest first.
+         */
+        void positions(long mask, int[] picks) {
+            int i = 0;
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                picks[i++] = position[Long.numberOfTrailingZeros(rest)];
+            }
+        }
+
+        /**
+         * @return The number of the set of the first count picks chosen by the bits of subset
+         */
+        int number(int[] picks, int count, int subset) {
+            int size = 0;
+            int rank = 0;
+            for (int i = 0; i < count; i++) {
+                if ((subset & (1 << i)) != 0) {
+                    rank += choose[++size][picks[i]];
+                }
+            }
+            return sizeStart[size] + rank;
+        }
+    }
+
+    /**
+     * The SubsetIndex class counts the completions of the last seat that avoid the cards
+     * dealt to the other seats and reach a strength, without going through them. For each
+     * set of up to unknown remaining cards it lists the completions holding the set,
+     * strongest first, with running totals of their weights. The completions avoiding the
+     * dealt cards are then all of them, less those holding each dealt card, plus those
+     * holding each pair of dealt cards, and so on.
+     */
+    private static final class SubsetIndex {
+        private final int unknown;
+        private final CardSets sets;
+        // Index of the first list entry of each set, then one past the last
+        private final int[] start;
+        private final int[] strengths;
+        private final long[] totals;
+
+        SubsetIndex(Completions seat, CardSets sets) {
+            unknown = seat.unknown;
+            this.sets = sets;
+
+            // Count the entries of each set, then fill the lists in completion order, strongest first
+            start = new int[sets.size() + 1];
+            int[] picks = new int[unknown];
+            for (int e = 0; e < seat.size(); e++) {
+                sets.positions(seat.masks[e], picks);
+                for (int subset = 0; subset < 1 << unknown; subset++) {
+                    start[sets.number(picks, unknown, subset) + 1]++;
+                }
+            }
+            for (int set = 0; set < start.length - 1; set++) {
+                start[set + 1] += start[set];
+            }
+            strengths = new int[start[start.length - 1]];
+            totals = new long[strengths.length];
+            int[] next = Arrays.copyOf(start, start.length - 1);
+            for (int e = 0; e < seat.size(); e++) {
+                sets.positions(seat.masks[e], picks);
+                for (int subset = 0; subset < 1 << unknown; subset++) {
+                    int at = next[sets.number(picks, unknown, subset)]++;
+                    strengths[at] = seat.strengths[e];
+                    totals[at] = seat.weights[e];
+                }
+            }
+            for (int set = 0; set < start.length - 1; set++) {
+                for (int at = start[set] + 1; at < start[set + 1]; at++) {
+                    totals[at] += totals[at - 1];
+                }
+            }
+        }
+
+        /**
+         * Tells whether counting with the index is quicker than going through the
+         * completions as strong as best, which are strongest first.
+         */
+        boolean isQuicker(long used, int best) {
+            int lookups = 0;
+            for (int k = 0; k <= unknown; k++) {
+                lookups += sets.choose[k][Long.bitCount(used)];
+            }
+            return endOf(0, best) > LOOKUP_COST * lookups;
+        }
+
+        /**
+         * Adds up the weights of the completions that avoid the used cards: in sums[0]
+         * those stronger than best, in sums[1] those at least as strong.
+         */
+        void count(long used, int best, long[] sums) {
+            int[] dealt = new int[Long.bitCount(used)];
+            sets.positions(used, dealt);
+            add(dealt, 0, 0, 0, 1, best, sums);
+        }
+
+        /**
+         * Adds the completions holding one set of dealt cards, with the sign its size
+         * gives it, then goes on to the sets that add a later dealt card to it.
+         */
+        private void add(int[] dealt, int from, int size, int rank, int sign, int best, long[] sums) {
+            int set = sets.sizeStart[size] + rank;
+            int end = endOf(set, best + 1);
+            sums[0] += sign * weightTo(set, end);
+            // Completions as strong as best follow the stronger ones
+            while (end < start[set + 1] && strengths[end] == best) {
+                end++;
+            }
+            sums[1] += sign * weightTo(set, end);
+            if (size == unknown) {
+                return;
+            }
+            for (int j = from; j < dealt.length; j++) {
+                add(dealt, j + 1, size + 1, rank + sets.choose[size + 1][dealt[j]], -sign, best, sums);
+            }
+        }
+
+        /**
+         * @return The weight of the completions on a set's list before an index
+         */
+        private long weightTo(int set, int end) {
+            return end == start[set] ? 0 : totals[end - 1];
+        }
+
+        /**
+         * @return The index of the first entry of a set's list weaker than the strength
+         */
+        private int endOf(int set, int strength) {
+            int low = start[set];
+            int high = start[set + 1];
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (strengths[middle] >= strength) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The Enumeration class fills in the seats one after another, in the order they are
+     * sorted in, adding each deal's result to the counts.
+     */
+    private static final class Enumeration {
+        final Completions[] seats;
+        final int[] seatOf;
+        final int cards;
+        final SubsetIndex index;
+        final CardSets sets;
+        // Numbers of every subset of each completion of the last two seats, or null
+        private final int[] pairNumbers;
+        private final int[] lastNumbers;
+        // Weights of the last seat's completions holding each set: those above a strength, then those reaching it
+        private final ThreadLocal<long[]> counters;
+
+        Enumeration(Completions[] seats, int[] seatOf, int cards, SubsetIndex index, CardSets sets) {
+            this.seats = seats;
+            this.seatOf = seatOf;
+            this.cards = cards;
+            this.index = index;
+            this.sets = sets;
+            pairNumbers = sets == null ? null : numbers(seats[seats.length - 2], sets);
+            lastNumbers = sets == null ? null : numbers(seats[seats.length - 1], sets);
+            counters = sets == null ? null : ThreadLocal.withInitial(() -> new long[2 * sets.size() + 2]);
+        }
+
+        /**
+         * Numbers every subset of each completion of a seat. Subsets too big for any
+         * completion of the last seat to hold get the number after the last set, whose
+         * weights stay 0.
+         */
+        private static int[] numbers(Completions seat, CardSets sets) {
+            int[] numbers = new int[seat.size() << seat.unknown];
+            int[] picks = new int[seat.unknown];
+            for (int i = 0; i < seat.size(); i++) {
+                sets.positions(seat.masks[i], picks);
+                for (int subset = 0; subset < 1 << seat.unknown; subset++) {
+                    numbers[i << seat.unknown | subset] = Integer.bitCount(subset) > sets.maxSize
+                            ? sets.size() : sets.number(picks, seat.unknown, subset);
+                }
+            }
+            return numbers;
+        }
+
+        /**
+         * Fills in the seats from a level on.
+         *
+         * @param level Index of the next seat to fill, in enumeration order
+         * @param used Mask of the cards dealt to the seats filled so far
+         * @param left Number of cards left to deal from
+         * @param best Strength of the best hand so far, or -1
+         * @param holders Mask of the levels holding the best hand
+         * @param weight Number of deals the seats filled so far stand for
+         * @param skipped Unknown cards of the seats that could not reach the best hand
+         */
+        void fill(int level, long used, int left, int best, long holders, long weight, int skipped, long[] counts) {
+            if (level == seats.length) {
+                credit(holders, weight * orderings(left, skipped), counts);
+                return;
+            }
+            Completions seat = seats[level];
+            if (seat.best() < best) {
+                fill(level + 1, used, left, best, holders, weight, skipped + seat.unknown, counts);
+            } else if (level == seats.length - 1) {
+                fillLast(seat, level, used, left, best, holders, weight * orderings(left - seat.unknown, skipped), counts);
+            } else if (level == seats.length - 2 && sets != null) {
+                fillPair(level, used, left, best, holders, weight, skipped, counts);
+            } else {
+                for (int i = 0; i < seat.size(); i++) {
+                    step(level, i, used, left, best, holders, weight, skipped, counts);
+                }
+            }
+        }
+
+        /**
+         * Deals one completion to the seat at a level and fills in the seats after it.
+         */
+        void step(int level, int i, long used, int left, int best, long holders, long weight, int skipped,
+                  long[] counts) {
+            Completions seat = seats[level];
+            if ((seat.masks[i] & used) != 0) {
+                return;
+            }
+            int strength = seat.strengths[i];
+            long nextHolders = strength > best ? 1L << level : strength == best ? holders | 1L << level : holders;
+            fill(level + 1, used | seat.masks[i], left - seat.unknown, Math.max(best, strength), nextHolders,
+                    weight * seat.weights[i], skipped, counts);
+        }
+
+        /**
+         * Fills in the last seat: its completions as strong as the best hand so far are
+         * counted with the index, or gone through without one, and the rest all lose to
+         * the hands holding it.
+         */
+        private void fillLast(Completions seat, int level, long used, int left, int best, long holders,
+                              long weight, long[] counts) {
+            long ahead = 0;
+            long even = 0;
+            boolean indexed = index != null && index.isQuicker(used, best);
+            if (indexed) {
+                long[] sums = new long[2];
+                index.count(used, best, sums);
+                ahead = sums[0];
+                even = sums[1] - sums[0];
+            }
+            for (int i = 0; !indexed && i < seat.size() && seat.strengths[i] >= best; i++) {
+                if ((seat.masks[i] & used) == 0) {
+                    if (seat.strengths[i] > best) {
+                        ahead += seat.weights[i];
+                    } else {
+                        even += seat.weights[i];
+                    }
+                }
+            }
+            credit(1L << level, weight * ahead, counts);
+            credit(holders | 1L << level, weight * even, counts);
+            credit(holders, weight * (orderings(left, seat.unknown) - ahead - even), counts);
+        }
+
+        /**
+         * Fills in the last two seats in one pass over the completions of the first of
+         * them, strongest first. The best hand after that seat, the one the last seat has
+         * to beat or reach, then only gets weaker, so the last seat's completions above it
+         * and reaching it only grow. Each is added once to the weights of every set of its
+         * cards, and those avoiding the cards of the other seat's completion are then all
+         * of them, less those holding each of its cards, plus those holding each pair of
+         * them, and so on, as in SubsetIndex.
+         */
+        private void fillPair(int level, long used, int left, int best, long holders, long weight, int skipped,
+                              long[] counts) {
+            Completions seat = seats[level];
+            Completions last = seats[level + 1];
+            long[] weights = counters.get();
+            Arrays.fill(weights, 0);
+            int nextAbove = 0;
+            int nextReaching = 0;
+
+            long rest = weight * orderings(left - seat.unknown - last.unknown, skipped);
+            long all = orderings(left - seat.unknown, last.unknown);
+            for (int i = 0; i < seat.size(); i++) {
+                if ((seat.masks[i] & used) != 0) {
+                    continue;
+                }
+                int strength = seat.strengths[i];
+                int top = Math.max(best, strength);
+                for (; nextAbove < last.size() && last.strengths[nextAbove] > top; nextAbove++) {
+                    addSets(last, nextAbove, used, weights, 0);
+                }
+                for (; nextReaching < last.size() && last.strengths[nextReaching] >= top; nextReaching++) {
+                    addSets(last, nextReaching, used, weights, 1);
+                }
+
+                // Completions of the last seat holding none of this completion's cards
+                long ahead = 0;
+                long reaching = 0;
+                for (int subset = 0, at = i << seat.unknown; subset < 1 << seat.unknown; subset++, at++) {
+                    int set = pairNumbers[at] << 1;
+                    if ((Integer.bitCount(subset) & 1) == 0) {
+                        ahead += weights[set];
+                        reaching += weights[set + 1];
+                    } else {
+                        ahead -= weights[set];
+                        reaching -= weights[set + 1];
+                    }
+                }
+                long even = reaching - ahead;
+
+                long seatHolders = strength > best ? 1L << level : strength == best ? holders | 1L << level : holders;
+                long deals = rest * seat.weights[i];
+                credit(1L << level + 1, deals * ahead, counts);
+                credit(seatHolders | 1L << level + 1, deals * even, counts);
+                credit(seatHolders, deals * (all - ahead - even), counts);
+            }
+
+        }
+
+        /**
+         * Adds the weight of one of the last seat's completions to each set of its cards,
+         * unless it holds a card already dealt.
+         *
+         * @param side 0 for the completions above a strength, 1 for those reaching it
+         */
+        private void addSets(Completions last, int i, long used, long[] weights, int side) {
+            if ((last.masks[i] & used) != 0) {
+                return;
+            }
+            for (int subset = 0, at = i << last.unknown; subset < 1 << last.unknown; subset++, at++) {
+                weights[lastNumbers[at] << 1 | side] += last.weights[i];
+            }
+        }
+
+        /**
+         * Adds deals to the win count of a lone holder of the best hand, or to the tie
+         * counts of each holder.
+         */
+        void credit(long holders, long deals, long[] counts) {
+            if (deals == 0) {
+                return;
+            }
+            boolean tied = Long.bitCount(holders) > 1;
+            for (long rest = holders; rest != 0; rest &= rest - 1) {
+                int seat = seatOf[Long.numberOfTrailingZeros(rest)];
+                counts[tied ? seats.length + seat : seat] += deals;
+            }
+        }
+    }
+
+    /**
+     * Fork/join task going through a range of the completions of the first seat that
+     * has any. Its result holds the wins of each seat, then the ties of each seat.
+     */
+    private static final class EnumerationTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Enumeration enumeration;
+        private final int level, from, to, best;
+        private final long holders;
+
+        EnumerationTask(Enumeration enumeration, int level, int from, int to, int best, long holders) {
+            this.enumeration = enumeration;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.best = best;
+            this.holders = holders;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= CHUNK) {
+                long[] counts = new long[2 * enumeration.seats.length];
+                for (int i = from; i < to; i++) {
+                    enumeration.step(level, i, 0, enumeration.cards, best, holders, 1, 0, counts);
+                }
+                return counts;
+            }
+
+            int middle = (from + to) >>> 1;
+            EnumerationTask left = new EnumerationTask(enumeration, level, from, middle, best, holders);
+            EnumerationTask right = new EnumerationTask(enumeration, level, middle, to, best, holders);
+            left.fork();
+            long[] counts = right.compute();
+            long[] leftCounts = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+    }
+}
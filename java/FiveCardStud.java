@@ -1,3 +1,9 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.random.*;
+
 /**
  * The FiveCardStud class serves as the main entry point for the Poker Hand Analyzer program.
  * It handles both normal gameplay and test mode operations.
@@ -5,20 +11,127 @@
 public class FiveCardStud {
     /**
      * The main method that runs the Poker Hand Analyzer.
-     * It handles two modes of operation:
-     * 1. Normal mode: Shuffles a deck, deals hands, and analyzes them.
+     * It handles nine modes of operation:
+     * 1. Normal mode: Shuffles a deck, deals hands, and analyzes them. The shuffle comes from
+     *    the seed given with --seed or else a new one, and the seed is printed, so the same
+     *    deal can be shuffled again. With --streets it
+     *    also shows what each hand has made and can still make after each street, and with
+     *    --outs the cards left that would improve each hand or give it the lead.
      * 2. Test mode: Reads hands from a file and analyzes them.
+     * 3. Enumeration mode (--enumerate): Counts the category of every possible hand,
+     *    or of the best five of every possible seven cards with --enumerate 7. With
+     *    --classes it evaluates one hand for each group of suit renamings.
+     * 4. Bulk mode (--bulk): Ranks every table in a large file of tables in one run.
+     * 5. Server mode (--serve): Ranks tables sent to a local port until stopped (see HandServer).
+     * 6. Query mode (--query): Prints how often each hand category was dealt and won in a HandStore file.
+     * 7. Deal mode (--deal): Deals, ranks and writes a number of tables from a DealStream, from the
+     *    seed given with --seed or else a new one, and adds the run to a DealLog with --log.
+     * 8. Replay mode (--replay): Deals one table of a DealLog again and prints it as a handset file.
+     * 9. Equity mode (--equity): Reads the known cards of each seat, one line per seat, and
+     *    prints each seat's exact chance of winning over every deal of the unseen cards,
+     *    with the cards given with --dead out of play (see ExactEquity).
+     * Normal, test, bulk and deal mode deal six hands unless --seats comes first. Only normal
+     * and deal mode take --seed, and only deal mode takes --log.
+     * Bulk and deal mode write every hand as text unless --format comes first, look hands up
+     * in a cache of the given size with --cache (and --cache-policy lru, fifo or random),
+     * also append every ranked table to a HandStore file with --store, and check a fraction
+     * of the tables against the legacy ranking code with --shadow (see ShadowRanker).
+     * Any mode prints the time spent in each Phase to System.err at exit with --metrics exit,
+     * or also each time the process gets a signal with --metrics and the signal (e.g., USR2).
      * 
-     * @param args Command line arguments. If provided, should be a single filename for test mode.
+     * @param args Command line arguments. If provided, should be --streets and/or --outs for
+     *             normal mode, a single filename for test mode,
+     *             --enumerate for enumeration mode, --bulk and a filename for bulk mode,
+     *             --serve and a port for server mode, --query and a store file for query mode,
+     *             --deal and a number of tables for deal mode, --replay, a log file and a
+     *             table number for replay mode, or --equity and a filename for equity mode,
+     *             optionally after --seats and the number of hands (2 to 10) and
+     *             --format and one of text, winners, summary, csv or binary,
+     *             --cache and a number of entries, --cache-policy and a policy, --store and a file,
+     *             --seed and a number, --log and a file, --shadow and a sampling rate,
+     *             --dead and comma separated cards,
+     *             and --metrics and exit or a signal name.
      */
     public static void main(String[] args) {
-        if (args.length == 0) {
+        int seats = CreateDeck.DEFAULT_SEATS;
+        OutputFormat format = OutputFormat.TEXT;
+        int cacheSize = 0;
+        EvictionPolicy policy = EvictionPolicy.LRU;
+        String storeFile = null;
+        Long seed = null;
+        String logFile = null;
+        double shadowRate = 0;
+        int[] deadCards = new int[0];
+        while (args.length >= 2 && args[0].startsWith("--") && !args[0].equals("--bulk") && !args[0].equals("--enumerate")
+                && !args[0].equals("--serve") && !args[0].equals("--query") && !args[0].equals("--deal")
+                && !args[0].equals("--replay") && !args[0].equals("--equity")) {
+            try {
+                if (args[0].equals("--seats")) {
+                    seats = CreateDeck.checkSeats(Integer.parseInt(args[1]));
+                } else if (args[0].equals("--format")) {
+                    format = OutputFormat.parse(args[1]);
+                } else if (args[0].equals("--cache")) {
+                    cacheSize = Integer.parseInt(args[1]);
+                    if (cacheSize < 0) {
+                        throw new IllegalArgumentException();
+                    }
+                } else if (args[0].equals("--cache-policy")) {
+                    policy = EvictionPolicy.parse(args[1]);
+                } else if (args[0].equals("--store")) {
+                    storeFile = args[1];
+                } else if (args[0].equals("--seed")) {
+                    seed = Long.parseLong(args[1]);
+                } else if (args[0].equals("--log")) {
+                    logFile = args[1];
+                } else if (args[0].equals("--shadow")) {
+                    shadowRate = Double.parseDouble(args[1]);
+                    if (!(shadowRate > 0 && shadowRate <= 1)) {
+                        throw new IllegalArgumentException();
+                    }
+                } else if (args[0].equals("--dead")) {
+                    String[] cards = args[1].split(",");
+                    deadCards = new int[cards.length];
+                    for (int i = 0; i < cards.length; i++) {
+                        deadCards[i] = CreateCard.parse(cards[i].trim());
+                    }
+                } else if (args[0].equals("--metrics")) {
+                    if (!args[1].equalsIgnoreCase("exit")) {
+                        Metrics.printSummaryOnSignal(args[1]);
+                    }
+                    Metrics.printSummaryAtExit();
+                } else {
+                    break;
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid " + args[0].substring(2) + ": " + args[1]);
+                System.exit(1);
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        boolean streets = Arrays.asList(args).contains("--streets");
+        boolean outs = Arrays.asList(args).contains("--outs");
+        boolean normal = args.length == (streets ? 1 : 0) + (outs ? 1 : 0);
+        boolean dealing = args.length == 2 && args[0].equals("--deal");
+        if (seed != null && !normal && !dealing) {
+            System.err.println("--seed only applies to normal and deal mode");
+            System.exit(1);
+        }
+        if (logFile != null && !dealing) {
+            System.err.println("--log only applies to deal mode");
+            System.exit(1);
+        }
+
+        if (normal) {
             // Normal mode operation
             System.out.println("*** POKER HAND ANALYZER ***\n");
             boolean test = false;
+            long shuffleSeed = seed != null ? seed : DealStream.newSeed();
+            System.out.println("*** Seed: " + shuffleSeed + " (shuffle this deck again with --seed " + shuffleSeed + ")\n");
 
-            // Create an ordered deck of cards
-            CreateDeck deck = new CreateDeck(test);
+            // Create an ordered deck of cards, shuffled by a generator of the seed
+            CreateDeck deck = new CreateDeck(test, seats);
+            deck.setRandom(RandomGeneratorFactory.of(DealStream.ALGORITHM).create(shuffleSeed));
 
             // Shuffle the deck
             deck.shuffleDeck();
@@ -26,7 +139,7 @@ public class FiveCardStud {
             // Display the shuffled deck
             deck.retrieveCard();
 
-            // Deal six hands from the top of the deck
+            // Deal the hands from the top of the deck
             deck.dealHands();
 
             System.out.println();
@@ -36,14 +149,162 @@ public class FiveCardStud {
 
             System.out.println();
 
+            if (streets) {
+                // Print the hands as they grew, street by street
+                deck.printStreets();
+                System.out.println();
+            }
+
             // Show the remaining cards in the deck
             deck.remainingDeck();
 
             // Analyze and print the results
             deck.printResult();
+
+            if (outs) {
+                // Print the cards left that would improve each hand or give it the lead
+                deck.printOuts();
+            }
+        } else if (args.length == 2 && args[0].equals("--bulk")) {
+            // Bulk mode operation
+            long start = System.nanoTime();
+            // Write straight to the standard output file, not through the synchronized System.out
+            ResultWriter out = new ResultWriter(new FileOutputStream(FileDescriptor.out), format, seats);
+            EvaluationCache cache = cacheSize > 0 ? EvaluationCache.ofHandStrengths(cacheSize, policy) : null;
+            BulkMode bulk = new BulkMode(out, cache);
+            ShadowRanker shadow = shadowRate > 0 ? new ShadowRanker(seats, shadowRate) : null;
+            try (HandStoreWriter store = storeFile != null ? new HandStoreWriter(Paths.get(storeFile), seats) : null) {
+                bulk.setStore(store);
+                bulk.setShadow(shadow);
+                bulk.processFile(args[1]);
+                System.err.printf("*** Ranked %d tables (%d skipped) in %.1f ms%n",
+                        bulk.getTables(), bulk.getErrors(), (System.nanoTime() - start) / 1e6);
+                if (cache != null) {
+                    System.err.println("*** " + cache);
+                }
+                if (store != null) {
+                    System.err.println("*** Stored " + store.getTables() + " tables in " + storeFile);
+                }
+                if (shadow != null) {
+                    System.err.print(shadow.report());
+                }
+            } catch (IOException e) {
+                System.err.println("Error processing file: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (dealing) {
+            // Deal mode operation
+            long start = System.nanoTime();
+            long count;
+            try {
+                count = Long.parseLong(args[1]);
+                if (count < 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid deal: " + args[1]);
+                System.exit(1);
+                return;
+            }
+            DealStream deals = new DealStream(seed != null ? seed : DealStream.newSeed(), seats);
+            ResultWriter out = new ResultWriter(new FileOutputStream(FileDescriptor.out), format, seats);
+            EvaluationCache cache = cacheSize > 0 ? EvaluationCache.ofHandStrengths(cacheSize, policy) : null;
+            BulkMode bulk = new BulkMode(out, cache);
+            ShadowRanker shadow = shadowRate > 0 ? new ShadowRanker(seats, shadowRate) : null;
+            try (HandStoreWriter store = storeFile != null ? new HandStoreWriter(Paths.get(storeFile), seats) : null) {
+                DealLog log = logFile != null ? new DealLog(Paths.get(logFile)) : null;
+                bulk.setStore(store);
+                bulk.setShadow(shadow);
+                bulk.processDeals(deals, 0, count);
+                if (log != null) {
+                    log.append(deals, 0, count);
+                }
+                System.err.printf("*** Dealt and ranked %d tables from seed %d in %.1f ms%n",
+                        bulk.getTables(), deals.getSeed(), (System.nanoTime() - start) / 1e6);
+                if (cache != null) {
+                    System.err.println("*** " + cache);
+                }
+                if (store != null) {
+                    System.err.println("*** Stored " + store.getTables() + " tables in " + storeFile);
+                }
+                if (shadow != null) {
+                    System.err.print(shadow.report());
+                }
+            } catch (IOException e) {
+                System.err.println("Error dealing: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args.length == 3 && args[0].equals("--replay")) {
+            // Replay mode operation
+            try {
+                DealLog log = new DealLog(Paths.get(args[1]));
+                long table = Long.parseLong(args[2]);
+                DealLog.Run run = log.find(table);
+                int[] cards = log.replay(table);
+                System.err.println("*** Table " + table + ": deal " + log.dealIndex(table) + " of " + run);
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < cards.length; i++) {
+                    text.append(CreateCard.toString(cards[i])).append(i % 5 == 4 ? "\n" : ",");
+                }
+                System.out.print(text);
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                System.err.println("Invalid table: " + args[2]);
+                System.exit(1);
+            } catch (IOException e) {
+                System.err.println("Error reading log: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args.length == 2 && args[0].equals("--equity")) {
+            // Equity mode operation
+            try {
+                EquityResult result = new ExactEquity(readKnownCards(args[1]), deadCards).run();
+                System.out.print(result);
+                System.err.printf("*** Counted every deal in %.1f ms%n", result.getElapsedNanos() / 1e6);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid equity spot: " + e.getMessage());
+                System.exit(1);
+            } catch (IOException e) {
+                System.err.println("Error reading file: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args.length == 2 && args[0].equals("--query")) {
+            // Query mode operation
+            try (HandStoreReader store = new HandStoreReader(Paths.get(args[1]))) {
+                System.out.print(store.summary());
+            } catch (IOException e) {
+                System.err.println("Error reading store: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args.length == 2 && args[0].equals("--serve")) {
+            // Server mode operation
+            EvaluationCache cache = cacheSize > 0 ? EvaluationCache.ofHandStrengths(cacheSize, policy) : null;
+            try (HandServer server = new HandServer(Integer.parseInt(args[1]), cache)) {
+                System.err.println("*** Serving on port " + server.getPort());
+                server.serve();
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port: " + args[1]);
+                System.exit(1);
+            } catch (IOException e) {
+                System.err.println("Error serving: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args[0].equals("--enumerate") && enumerateOptionsValid(args)) {
+            // Enumeration mode operation
+            List<String> options = Arrays.asList(args);
+            int handSize = options.contains("7") ? 7 : 5;
+            System.out.println("*** ENUMERATING ALL " + (handSize == 7 ? SevenCardStrength.HAND_COUNT + " SEVEN"
+                    : HandStrength.HAND_COUNT + " FIVE") + " CARD HANDS ***\n");
+
+            HandEnumerator enumerator = new HandEnumerator(handSize);
+            if (options.contains("--classes")) {
+                enumerator.enumerateClasses();
+            } else {
+                enumerator.enumerate();
+            }
+            enumerator.printResult();
         } else if (args.length != 1) {
             // Incorrect usage of command line arguments
-            System.err.println("Usage: java FiveCardStud <filename>");
+            System.err.println("Usage: java FiveCardStud [--seats <n>] [--format <format>] [--cache <entries>] [--cache-policy <policy>] [--store <file>] [--seed <n>] [--log <file>] [--shadow <rate>] [--dead <cards>] [--metrics <exit | signal>] [[--streets] [--outs] | <filename> | --enumerate [7] [--classes] | --bulk <filename> | --serve <port> | --query <file> | --deal <tables> | --replay <log> <table> | --equity <filename>]");
         } else {
             // Test mode operation
             System.out.println(" *** P O K E R   H A N D  A N A L Y Z E R ***\n");
@@ -52,13 +313,13 @@ public class FiveCardStud {
             String filename = args[0];
             System.out.println("*** File: " + filename);
 
-            GameMode mode = new GameMode();
+            GameMode mode = new GameMode(seats);
             try {
                 // Read test hands from the specified file
                 mode.readFile(filename);
                 
                 // Create a test deck and retrieve hands from the GameMode
-                CreateDeck testDeck = new CreateDeck();
+                CreateDeck testDeck = new CreateDeck(seats);
                 testDeck.retrieveDeck(mode);
                 
                 // Process the test deck
@@ -73,4 +334,34 @@ public class FiveCardStud {
             }
         }
     }
+
+    /**
+     * Reads the known cards of each seat, one to five comma separated cards a line.
+     *
+     * @param filename Name of the file to read
+     * @return The card ids of each seat, in dealt order
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a card is invalid, a line holds more than five
+     *                                  cards or the number of seats is out of range
+     */
+    private static int[][] readKnownCards(String filename) throws IOException {
+        CardParser parser = new CardParser(ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename))));
+        List<int[]> seats = new ArrayList<>();
+        int[] cards = new int[5];
+        int count;
+        while ((count = parser.nextLine(cards, 0, 5)) >= 0) {
+            seats.add(Arrays.copyOf(cards, count));
+        }
+        CreateDeck.checkSeats(seats.size());
+        return seats.toArray(new int[0][]);
+    }
+
+    /**
+     * Checks the words after --enumerate: an optional 7 and an optional --classes.
+     */
+    private static boolean enumerateOptionsValid(String[] args) {
+        List<String> options = Arrays.asList(args).subList(1, args.length);
+        int known = (options.contains("7") ? 1 : 0) + (options.contains("--classes") ? 1 : 0);
+        return options.size() == known;
+    }
 }
@@ -1,5 +1,6 @@
 import java.io.*;
-import java.util.*;
+import java.nio.*;
+import java.nio.file.*;
 
 /**
  * The GameMode class handles the setup and processing of test data for the poker game.
@@ -12,15 +13,28 @@ public class GameMode {
     /** Name of the file containing test data */
     public String filename;
     
-    /** Array to store complete hands as strings */
-    public String[] testArray;
+    /** Number of hands in the test data */
+    public int seats;
+
+    /** Card ids of the hands, five per hand */
+    public int[] testCards;
 
     /**
-     * Default constructor initializing arrays for storing hand data.
+     * Default constructor initializing arrays for storing six hands.
      */
     public GameMode() {
-        entries = new String[6][5];  // 6 hands, 5 cards each
-        testArray = new String[6];   // 6 complete hands
+        this(CreateDeck.DEFAULT_SEATS);
+    }
+
+    /**
+     * Constructor initializing arrays for storing a table of any size.
+     * @param seats Number of hands in the test data, from CreateDeck.MIN_SEATS to CreateDeck.MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
+     */
+    public GameMode(int seats) {
+        this.seats = CreateDeck.checkSeats(seats);
+        entries = new String[seats][5];  // 5 cards per hand
+        testCards = new int[seats * 5];
     }
 
     /**
@@ -33,29 +47,31 @@ public class GameMode {
 
     /**
      * Reads and processes the test data file.
+     * The cards are parsed straight from the file's bytes into card ids.
      * @param filename Name of the file to read
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a card is invalid or a line does not hold five cards
      */
-    public void readFile(String filename) {
+    public void readFile(String filename) throws IOException {
         this.filename = filename;
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            int row = 0;
-            while ((line = br.readLine()) != null && row < 6) {
-                String[] cards = line.split(",");
-                for (int col = 0; col < 5 && col < cards.length; col++) {
-                    String card = cards[col].trim();
-                    validateCard(card);
-                    entries[row][col] = card;
-                }
-                row++;
+        long start = Metrics.start();
+        CardParser parser = new CardParser(ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename))));
+
+        for (int row = 0; row < seats; row++) {
+            int count = parser.nextLine(testCards, row * 5, 5);
+            if (count < 0) {
+                throw new IllegalArgumentException("Expected " + seats + " hands, found " + row);
+            } else if (count != 5) {
+                throw new IllegalArgumentException("Expected 5 cards on line " + parser.getLineNumber() + ", found " + count);
+            }
+            for (int col = 0; col < 5; col++) {
+                entries[row][col] = CreateCard.toString(testCards[row * 5 + col]);
             }
-        } catch (IOException e) {
-            System.err.println("Error reading file: " + filename);
-            System.exit(1);
         }
+        Metrics.stop(Phase.PARSE, start, seats);
 
         // Print the contents of entries
-        for (int i = 0; i < 6; i++) {
+        for (int i = 0; i < seats; i++) {
             for (int j = 0; j < 5; j++) {
                 System.out.print(entries[i][j]);
                 System.out.print(j == 4 ? "\n" : ",");
@@ -66,37 +82,17 @@ public class GameMode {
     }
 
     /**
-     * Validates individual card strings.
-     * @param card The card string to validate
-     * @throws IllegalArgumentException if the card is invalid
-     */
-    private void validateCard(String card) {
-        if (card.length() < 2 || card.length() > 3) {
-            throw new IllegalArgumentException("Invalid card length: " + card);
-        }
-        if (!Character.isUpperCase(card.charAt(card.length() - 1))) {
-            throw new IllegalArgumentException("Suit must be uppercase: " + card);
-        }
-        // Additional validation could be added here
-    }
-
-    /**
-     * Prepares the test deck by formatting the entries into complete hand strings.
+     * Prepares the test deck by checking that no card was dealt twice.
+     * @throws IllegalArgumentException if a card appears twice
      */
     public void setTestDeck() {
-        for (int i = 0; i < 6; i++) {
-            StringBuilder line = new StringBuilder();
-            for (int j = 0; j < 5; j++) {
-                String temp = entries[i][j].replaceAll("\\s+", "");
-                entries[i][j] = temp;
-                line.append(temp).append(" ");
-            }
-            testArray[i] = line.toString().trim();
-        }
+        long start = Metrics.start();
+        CardParser.checkDuplicates(testCards, 0, seats * 5);
+        Metrics.stop(Phase.PARSE, start, seats);
 
-        System.out.println("\n***Here are the six hands... ");
-        for (String hand : testArray) {
-            System.out.println(hand);
+        System.out.println("\n***Here are the " + CreateDeck.seatsName(seats) + " hands... ");
+        for (int i = 0; i < seats; i++) {
+            System.out.println(CreateCard.join(testCards, i * 5, 5));
         }
     }
 
@@ -105,6 +101,6 @@ public class GameMode {
      * @param b The CreateDeck object to use for ranking hands
      */
     public void callDeckClass(CreateDeck b) {
-        b.rankHands(testArray);
+        b.rankHands(testCards);
     }
 }
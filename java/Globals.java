@@ -1,14 +0,0 @@
-public class Globals {
-    // GLOBAL VARIABLES ACCESSED STATICLY
-    public static boolean RSF = false;
-    public static boolean SF = false;
-    public static boolean FOAK = false;
-    public static boolean FH = false;
-    public static boolean FLUSH = false;
-    public static boolean STRAIGHT = false;
-    public static boolean TOAK = false;
-    public static boolean TP = false;
-    public static boolean PAIR = false;
-    public static boolean HC = false;
-}
-
@@ -0,0 +1,28 @@
+/**
+ * The HandCategory enum lists the poker hand types from best to worst.
+ * Each category carries the display name printed in the results and the
+ * order value used when sorting hands (lower order wins).
+ */
+public enum HandCategory {
+    ROYAL_STRAIGHT_FLUSH("Royal Straight Flush", 5),
+    STRAIGHT_FLUSH("Straight Flush", 6),
+    FOUR_OF_A_KIND("Four of a Kind", 7),
+    FULL_HOUSE("Full House", 8),
+    FLUSH("Flush", 9),
+    STRAIGHT("Straight", 10),
+    THREE_OF_A_KIND("Three of a Kind", 11),
+    TWO_PAIR("Two Pair", 12),
+    PAIR("Pair", 13),
+    HIGH_CARD("High Card", 14);
+
+    /** The name of the hand as shown in the winning hand order */
+    public final String label;
+
+    /** The sort order of the hand, 5 being the best */
+    public final int order;
+
+    HandCategory(String label, int order) {
+        this.label = label;
+        this.order = order;
+    }
+}
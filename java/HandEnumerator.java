@@ -0,0 +1,218 @@
+import java.util.stream.*;
+
+/**
+ * The HandEnumerator class classifies every possible five card hand, or the best five
+ * cards of every possible seven card hand, and counts how many fall into each category.
+ * The counts are well known, so a run checks the evaluator and measures its full
+ * throughput at the same time.
+ */
+public class HandEnumerator {
+    /** Number of hands in each category, in HandCategory order */
+    public static final long[] EXPECTED_COUNTS = {
+        4, 36, 624, 3744, 5108, 10200, 54912, 123552, 1098240, 1302540
+    };
+
+    /** Number of seven card hands whose best five cards are in each category, in HandCategory order */
+    public static final long[] EXPECTED_SEVEN_CARD_COUNTS = {
+        4324, 37260, 224848, 3473184, 4047644, 6180020, 6461620, 31433400, 58627800, 23294460
+    };
+
+    private final int handSize;
+    private long[] counts;
+    private long evaluated;
+    private long elapsedNanos;
+
+    /**
+     * Creates an enumerator of five card hands.
+     */
+    public HandEnumerator() {
+        this(5);
+    }
+
+    /**
+     * @param handSize Cards in a hand, 5 or 7
+     * @throws IllegalArgumentException if the hand size is not 5 or 7
+     */
+    public HandEnumerator(int handSize) {
+        if (handSize != 5 && handSize != 7) {
+            throw new IllegalArgumentException("Hand size must be 5 or 7: " + handSize);
+        }
+        this.handSize = handSize;
+    }
+
+    /**
+     * Classifies all 2,598,960 five card hands or 133,784,560 seven card hands,
+     * spread across all cores. The work is split by the highest card of the hand.
+     */
+    public void enumerate() {
+        HandStrength.category(0); // build the strength table before timing
+
+        long start = System.nanoTime();
+        counts = IntStream.range(handSize - 1, CreateCard.DECK_SIZE)
+                .parallel()
+                .mapToObj(handSize == 5 ? HandEnumerator::countWithHighestCard : HandEnumerator::countSevenWithHighestCard)
+                .reduce(new long[EXPECTED_COUNTS.length], HandEnumerator::add);
+        elapsedNanos = System.nanoTime() - start;
+        evaluated = getTotal();
+    }
+
+    /**
+     * Counts the same categories as enumerate, but evaluates only one hand of each group
+     * of hands that differ just in the names of their suits (see SuitIsomorphism), and
+     * counts it once for every hand in the group: 134,459 evaluations for five cards and
+     * 6,009,159 for seven. The work is split by the highest face value and how many
+     * cards of it the hand holds.
+     */
+    public void enumerateClasses() {
+        HandStrength.category(0); // build the strength table before timing
+
+        long start = System.nanoTime();
+        long[] sums = IntStream.range(0, 13 * 4)
+                .parallel()
+                .mapToObj(task -> countClasses(task / 4 + 2, task % 4 + 1))
+                .reduce(new long[EXPECTED_COUNTS.length + 1], HandEnumerator::add);
+        elapsedNanos = System.nanoTime() - start;
+        counts = java.util.Arrays.copyOf(sums, EXPECTED_COUNTS.length);
+        evaluated = sums[EXPECTED_COUNTS.length];
+    }
+
+    /**
+     * Counts the categories of the canonical hands with the given highest face value,
+     * each by its weight. The last count is the number of hands evaluated.
+     */
+    private long[] countClasses(int topFace, int topCount) {
+        long[] counts = new long[EXPECTED_COUNTS.length + 1];
+        SuitIsomorphism.forEachClass(handSize, topFace, topCount, (mask, weight) -> {
+            int strength = handSize == 5 ? HandStrength.ofMask(mask) : SevenCardStrength.ofMask(mask);
+            counts[HandStrength.category(strength).ordinal()] += weight;
+            counts[EXPECTED_COUNTS.length]++;
+        });
+        return counts;
+    }
+
+    /**
+     * @return The number of cards in each hand counted
+     */
+    public int getHandSize() {
+        return handSize;
+    }
+
+    /**
+     * Counts the categories of every hand whose highest card id is e.
+     */
+    private static long[] countWithHighestCard(int e) {
+        long[] counts = new long[EXPECTED_COUNTS.length];
+        long maskE = 1L << e;
+        for (int d = 3; d < e; d++) {
+            long maskD = maskE | 1L << d;
+            for (int c = 2; c < d; c++) {
+                long maskC = maskD | 1L << c;
+                for (int b = 1; b < c; b++) {
+                    long maskB = maskC | 1L << b;
+                    for (int a = 0; a < b; a++) {
+                        counts[HandStrength.category(HandStrength.ofMask(maskB | 1L << a)).ordinal()]++;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the categories of every seven card hand whose highest card id is g.
+     */
+    private static long[] countSevenWithHighestCard(int g) {
+        long[] counts = new long[EXPECTED_COUNTS.length];
+        long maskG = 1L << g;
+        for (int f = 5; f < g; f++) {
+            long maskF = maskG | 1L << f;
+            for (int e = 4; e < f; e++) {
+                long maskE = maskF | 1L << e;
+                for (int d = 3; d < e; d++) {
+                    long maskD = maskE | 1L << d;
+                    for (int c = 2; c < d; c++) {
+                        long maskC = maskD | 1L << c;
+                        for (int b = 1; b < c; b++) {
+                            long maskB = maskC | 1L << b;
+                            for (int a = 0; a < b; a++) {
+                                counts[HandStrength.category(SevenCardStrength.ofMask(maskB | 1L << a)).ordinal()]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param category A hand category
+     * @return The number of hands counted in the category
+     */
+    public long getCount(HandCategory category) {
+        return counts[category.ordinal()];
+    }
+
+    /**
+     * @return The total number of hands counted
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return The number of hands evaluated by the last run
+     */
+    public long getEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * @return True if every category count matches the known count
+     */
+    public boolean matchesExpected() {
+        return java.util.Arrays.equals(counts, expectedCounts());
+    }
+
+    private long[] expectedCounts() {
+        return handSize == 5 ? EXPECTED_COUNTS : EXPECTED_SEVEN_CARD_COUNTS;
+    }
+
+    /**
+     * Prints the count of each category and the throughput of the run, in hands evaluated per second.
+     */
+    public void printResult() {
+        System.out.println("--- HAND CATEGORY COUNTS ---");
+        for (HandCategory category : HandCategory.values()) {
+            long count = counts[category.ordinal()];
+            long expected = expectedCounts()[category.ordinal()];
+            System.out.printf("%-22s %9d%s%n", category.label, count,
+                    count == expected ? "" : "   (expected " + expected + ")");
+        }
+
+        // Throughput counts only the hands evaluated, not the ones their weights stand for
+        double seconds = elapsedNanos / 1e9;
+        if (evaluated == getTotal()) {
+            System.out.printf("%nTotal: %d hands in %.1f ms (%.0f hands/second)%n",
+                    getTotal(), elapsedNanos / 1e6, evaluated / seconds);
+        } else {
+            System.out.printf("%nTotal: %d hands covered in %.1f ms%n", getTotal(), elapsedNanos / 1e6);
+            System.out.printf("Evaluated %d hands, one for each group of suit renamings (%.0f hands/second)%n",
+                    evaluated, evaluated / seconds);
+        }
+        System.out.println(matchesExpected() ? "All counts match." : "*** COUNTS DO NOT MATCH ***");
+        System.out.println();
+    }
+}
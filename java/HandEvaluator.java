@@ -0,0 +1,70 @@
+import java.util.*;
+
+/**
+ * The HandEvaluator class determines the category of a five card hand.
+ * It keeps no state between calls, so any number of threads can evaluate
+ * hands at the same time.
+ */
+public final class HandEvaluator {
+
+    private HandEvaluator() {
+    }
+
+    /**
+     * Evaluates a hand given as space separated cards (e.g., "10H JH QH KH AH").
+     *
+     * @param cards The string representation of the hand
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if a card is not valid
+     */
+    public static HandResult evaluate(String cards) {
+        String[] words = cards.trim().split("\\s+");
+        if (words.length != 5) {
+            throw new IllegalArgumentException("A hand needs five cards: " + cards);
+        }
+        int[] ids = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            ids[i] = CreateCard.parse(words[i]);
+        }
+        return evaluate(ids, 0);
+    }
+
+    /**
+     * Evaluates five cards stored as card ids.
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card of the hand
+     * @return The result of the evaluation
+     */
+    public static HandResult evaluate(int[] cards, int from) {
+        int strength = HandStrength.of(cards, from);
+        return new HandResult(HandStrength.category(strength),
+                Arrays.copyOfRange(cards, from, from + 5), strength);
+    }
+
+    /**
+     * Evaluates five cards stored as card ids, looking the hand up in a cache first.
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card of the hand
+     * @param cache Cache of strengths by card mask, as made by EvaluationCache.ofHandStrengths
+     * @return The result of the evaluation
+     */
+    public static HandResult evaluate(int[] cards, int from, EvaluationCache cache) {
+        int strength = HandStrength.withDealtOrder(cache.get(HandStrength.mask(cards, from)), cards, from);
+        return new HandResult(HandStrength.category(strength),
+                Arrays.copyOfRange(cards, from, from + 5), strength);
+    }
+
+    /**
+     * Evaluates several hands at once, spreading the work over all available cores.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @return The results, in the same order as the hands
+     */
+    public static HandResult[] evaluateAll(int[] cards) {
+        HandResult[] results = new HandResult[cards.length / 5];
+        Arrays.parallelSetAll(results, i -> evaluate(cards, i * 5));
+        return results;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * The HandResult class is the immutable outcome of evaluating one five card hand.
+ * It holds the hand category, the cards in the order they were given, and the
+ * strength used to break ties between hands of the same category.
+ */
+public final class HandResult {
+    private final HandCategory category;
+    private final int[] cards;
+    private final int strength;
+
+    /**
+     * Creates a result. Only the HandEvaluator builds these.
+     *
+     * @param category The category of the hand
+     * @param cards The cards of the hand, in dealt order
+     * @param strength The strength of the hand, see HandStrength
+     */
+    HandResult(HandCategory category, int[] cards, int strength) {
+        this.category = category;
+        this.cards = cards.clone();
+        this.strength = strength;
+    }
+
+    /**
+     * @return The category of the hand
+     */
+    public HandCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * @return The name of the hand (e.g., "Full House")
+     */
+    public String getHand() {
+        return category.label;
+    }
+
+    /**
+     * @return The sort order of the hand, lower is better
+     */
+    public int getOrder() {
+        return category.order;
+    }
+
+    /**
+     * @return A copy of the card ids of the hand, in dealt order
+     */
+    public int[] getCards() {
+        return cards.clone();
+    }
+
+    /**
+     * @return The strength of the hand, higher is better (see HandStrength)
+     */
+    public int getStrength() {
+        return strength;
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.*;
+import java.lang.reflect.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The HandServer class keeps the analyzer running and ranks tables sent to it over a
+ * local TCP socket, so a request pays neither JVM startup nor warm up.
+ *
+ * The protocol is one line per request and one reply per request, in order:
+ * <ul>
+ * <li>A line of comma separated cards, as in a bulk file: five cards to evaluate one
+ *     hand, or five cards per hand for a table of 2 to 10 hands. The reply is the
+ *     ranking as CreateDeck.printResult prints it: the "--- WINNING HAND ORDER ---" line,
+ *     one line per hand, best first, and a blank line.</li>
+ * <li>QUIT, which closes the connection.</li>
+ * </ul>
+ * An invalid request gets the reply "ERROR", the reason, and a blank line; the
+ * connection stays open. Every reply ends with a blank line.
+ *
+ * A client may send many requests without waiting for their replies (pipelining).
+ * Replies are buffered and only flushed once no more requests are waiting to be read.
+ *
+ * Each connection is handled on its own virtual thread when the JVM has them (Java 21
+ * on), or else on a thread from a cached pool. Connections share one thread safe
+ * EvaluationCache, if one is given, and each has its own TableRankers.
+ */
+public class HandServer implements Closeable {
+    /** Reply header, as CreateDeck.printResult prints it */
+    public static final String HEADER = "--- WINNING HAND ORDER ---";
+
+    /** Start of the reply to an invalid request */
+    public static final String ERROR = "ERROR";
+
+    /** Request that closes the connection */
+    public static final String QUIT = "QUIT";
+
+    private final ServerSocket socket;
+    private final EvaluationCache cache;
+    private final ExecutorService threads = newThreadPerTaskExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Opens a server socket on the loopback address.
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @param cache Cache of strengths by card mask shared by all connections, as made by
+     *              EvaluationCache.ofHandStrengths, or null to evaluate every hand
+     * @throws IOException if the port cannot be opened
+     */
+    public HandServer(int port, EvaluationCache cache) throws IOException {
+        this.socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.cache = cache;
+    }
+
+    /**
+     * Makes an executor that starts a virtual thread for each task when the JVM has
+     * them, or else runs tasks on a cached pool of daemon threads.
+     *
+     * @return The executor
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Before Java 21, or a preview release without --enable-preview
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     * @throws IOException if accepting fails for another reason than the server closing
+     */
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (SocketException e) {
+                if (socket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            connection.setTcpNoDelay(true);
+            connections.add(connection);
+            threads.execute(() -> handle(connection));
+        }
+    }
+
+    /**
+     * Answers the requests of one connection until the client quits or disconnects.
+     */
+    private void handle(Socket connection) {
+        TableRanker[] rankers = new TableRanker[CreateDeck.MAX_SEATS + 1];
+        int[] cards = new int[CreateDeck.MAX_SEATS * 5];
+        StringBuilder reply = new StringBuilder();
+
+        try (connection;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().equalsIgnoreCase(QUIT)) {
+                    break;
+                }
+                reply.setLength(0);
+                try {
+                    answer(line, cards, rankers, reply);
+                } catch (IllegalArgumentException e) {
+                    errors.increment();
+                    reply.setLength(0);
+                    reply.append(ERROR).append(' ').append(e.getMessage()).append("\n\n");
+                }
+                requests.increment();
+
+                long start = Metrics.start();
+                out.write(reply.toString());
+                if (!in.ready()) {
+                    // No more pipelined requests to answer before the client needs these
+                    out.flush();
+                }
+                Metrics.stop(Phase.OUTPUT, start);
+            }
+        } catch (IOException e) {
+            // The client went away; nothing is left to answer
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Ranks the hands of one request line and appends the reply.
+     * @throws IllegalArgumentException if the line is not a valid hand or table
+     */
+    private void answer(String line, int[] cards, TableRanker[] rankers, StringBuilder reply) {
+        long start = Metrics.start();
+        CardParser parser = new CardParser(ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII)));
+        int count = parser.nextLine(cards, 0, cards.length);
+        if (count <= 0 || count % 5 != 0) {
+            throw new IllegalArgumentException("Expected 5 cards per hand, found " + Math.max(count, 0));
+        }
+        int seats = count / 5;
+        CardParser.checkDuplicates(cards, 0, count);
+        Metrics.stop(Phase.PARSE, start, seats);
+
+        if (rankers[seats] == null) {
+            rankers[seats] = new TableRanker(seats, cache);
+        }
+        TableRanker ranker = rankers[seats];
+        int[] order = ranker.rank(cards, 0);
+
+        reply.append(HEADER).append('\n');
+        for (int i = 0; i < seats; i++) {
+            int seat = order[i];
+            for (int k = 0; k < 5; k++) {
+                if (k > 0) {
+                    reply.append(' ');
+                }
+                reply.append(CreateCard.toString(cards[seat * 5 + k]));
+            }
+            reply.append("  - ").append(HandStrength.category(ranker.getStrength(seat)).label).append('\n');
+        }
+        reply.append('\n');
+    }
+
+    /**
+     * @return The port the server listens on
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return The number of requests answered, including invalid ones
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return The number of invalid requests
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        for (Socket connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        threads.shutdown();
+    }
+}
@@ -0,0 +1,121 @@
+import java.io.*;
+import java.nio.*;
+
+/**
+ * The HandStore class describes the file format that HandStoreWriter appends ranked
+ * tables to and HandStoreReader scans. Both map the file into memory, so tables are
+ * read and written in place without streams or objects.
+ *
+ * The file starts with a HEADER_SIZE byte header:
+ * <pre>
+ *   bytes  0-3   'P', 'K', 'H', 'S'
+ *   byte   4     format version (1)
+ *   byte   5     number of seats
+ *   bytes  8-11  tables per block (BLOCK_TABLES)
+ *   bytes 16-23  number of tables stored
+ * </pre>
+ * The tables follow in blocks of BLOCK_TABLES. Each block stores its tables column by
+ * column, so a query reads only the columns it needs:
+ * <pre>
+ *   cards      the card ids (see CreateCard) of each seat in seat order, six bits
+ *              a card, ten cards to each eight byte word
+ *   category   one byte a seat: the HandCategory ordinal
+ *   strength   four bytes a seat: the HandStrength value
+ *   winner     one byte: the seat ranked first (seats with its strength tie with it)
+ * </pre>
+ * Every number is little endian. Every block takes the same space, the last one too,
+ * so a table's fields are found by arithmetic alone.
+ */
+public final class HandStore {
+    /** Bytes before the first block */
+    public static final int HEADER_SIZE = 64;
+
+    /** Format version written in the header */
+    public static final int VERSION = 1;
+
+    /** Tables in each block */
+    public static final int BLOCK_TABLES = 1 << 16;
+
+    /** Bits each card id takes in the cards column */
+    public static final int CARD_BITS = 6;
+
+    /** Card ids packed into each word of the cards column */
+    public static final int CARDS_PER_WORD = 10;
+
+    private static final int MAGIC = 'P' | 'K' << 8 | 'H' << 16 | 'S' << 24;
+    private static final int SEATS_OFFSET = 5;
+    private static final int BLOCK_TABLES_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+
+    public final int seats;
+    /** Eight byte words of cards each table takes */
+    public final int cardWords;
+    /** Where each column starts in a block */
+    public final int cardsColumn, categoryColumn, strengthColumn, winnerColumn;
+    /** Bytes each block takes */
+    public final int blockSize;
+
+    /**
+     * @param seats Number of hands at each table, from CreateDeck.MIN_SEATS to CreateDeck.MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
+     */
+    public HandStore(int seats) {
+        this.seats = CreateDeck.checkSeats(seats);
+        cardWords = (seats * 5 + CARDS_PER_WORD - 1) / CARDS_PER_WORD;
+        cardsColumn = 0;
+        categoryColumn = cardsColumn + BLOCK_TABLES * cardWords * 8;
+        strengthColumn = categoryColumn + BLOCK_TABLES * seats;
+        winnerColumn = strengthColumn + BLOCK_TABLES * seats * 4;
+        blockSize = winnerColumn + BLOCK_TABLES;
+    }
+
+    /**
+     * @param block Index of a block
+     * @return Where the block starts in the file
+     */
+    public long blockOffset(long block) {
+        return HEADER_SIZE + block * blockSize;
+    }
+
+    /**
+     * Writes a header for an empty store.
+     * @param header The first HEADER_SIZE bytes of the file
+     */
+    void writeHeader(ByteBuffer header) {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.put(4, (byte) VERSION);
+        header.put(SEATS_OFFSET, (byte) seats);
+        header.putInt(BLOCK_TABLES_OFFSET, BLOCK_TABLES);
+        setTableCount(header, 0);
+    }
+
+    /**
+     * Checks a header and reads the number of seats from it.
+     *
+     * @param header The first HEADER_SIZE bytes of the file
+     * @return The layout of the store
+     * @throws IOException if the header is not a hand store header this version can read
+     */
+    static HandStore readHeader(ByteBuffer header) throws IOException {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a hand store");
+        } else if (header.get(4) != VERSION || header.getInt(BLOCK_TABLES_OFFSET) != BLOCK_TABLES) {
+            throw new IOException("Unsupported hand store version: " + header.get(4));
+        }
+        try {
+            return new HandStore(header.get(SEATS_OFFSET));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid hand store header: " + e.getMessage());
+        }
+    }
+
+    static long getTableCount(ByteBuffer header) {
+        return header.getLong(COUNT_OFFSET);
+    }
+
+    static void setTableCount(ByteBuffer header, long tables) {
+        header.putLong(COUNT_OFFSET, tables);
+    }
+}
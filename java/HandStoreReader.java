@@ -0,0 +1,245 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * The HandStoreReader class answers questions about the tables in a HandStore file.
+ * The file is mapped into memory read only, and each query walks the columns it
+ * needs in place, block by block, building no objects along the way. Tables appended
+ * after the reader was opened are not seen.
+ *
+ * A HandStoreReader can be shared between threads once it is open.
+ */
+public class HandStoreReader implements Closeable {
+    private final HandStore layout;
+    private final FileChannel channel;
+    private final ByteBuffer[] blocks;
+    private final long tables;
+
+    /**
+     * Opens a store to read.
+     *
+     * @param path The store file
+     * @throws IOException if the file cannot be read, is not a store or is cut short
+     */
+    public HandStoreReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HandStore.HEADER_SIZE) {
+                throw new IOException("Not a hand store");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HandStore.HEADER_SIZE);
+            layout = HandStore.readHeader(header);
+            tables = HandStore.getTableCount(header);
+
+            int count = (int) ((tables + HandStore.BLOCK_TABLES - 1) / HandStore.BLOCK_TABLES);
+            if (channel.size() < layout.blockOffset(count)) {
+                throw new IOException("Hand store is cut short: expected " + tables + " tables");
+            }
+            blocks = new ByteBuffer[count];
+            for (int b = 0; b < count; b++) {
+                blocks[b] = channel.map(FileChannel.MapMode.READ_ONLY, layout.blockOffset(b), layout.blockSize)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of tables in the store
+     */
+    public long getTables() {
+        return tables;
+    }
+
+    /**
+     * @return The number of hands at each table
+     */
+    public int getSeats() {
+        return layout.seats;
+    }
+
+    /**
+     * Reads the cards of one table.
+     *
+     * @param table Index of the table, from 0
+     * @param cards Array to write the card ids into, five per seat in seat order
+     * @param from Index of the first card to write
+     */
+    public void getCards(long table, int[] cards, int from) {
+        ByteBuffer block = block(table);
+        int t = (int) (table % HandStore.BLOCK_TABLES);
+        int count = layout.seats * 5;
+        for (int i = 0; i < count; i++) {
+            long word = block.getLong(layout.cardsColumn + (t * layout.cardWords + i / HandStore.CARDS_PER_WORD) * 8);
+            cards[from + i] = (int) (word >>> (i % HandStore.CARDS_PER_WORD * HandStore.CARD_BITS)) & 63;
+        }
+    }
+
+    /**
+     * @param table Index of the table, from 0
+     * @param seat The seat index
+     * @return The category of the seat's hand
+     */
+    public HandCategory getCategory(long table, int seat) {
+        int t = (int) (table % HandStore.BLOCK_TABLES);
+        return HandCategory.values()[block(table).get(layout.categoryColumn + t * layout.seats + checkSeat(seat))];
+    }
+
+    /**
+     * @param table Index of the table, from 0
+     * @param seat The seat index
+     * @return The HandStrength value of the seat's hand
+     */
+    public int getStrength(long table, int seat) {
+        int t = (int) (table % HandStore.BLOCK_TABLES);
+        return block(table).getInt(layout.strengthColumn + (t * layout.seats + checkSeat(seat)) * 4);
+    }
+
+    /**
+     * @param table Index of the table, from 0
+     * @return The seat ranked first at the table
+     */
+    public int getWinner(long table) {
+        return block(table).get(layout.winnerColumn + (int) (table % HandStore.BLOCK_TABLES));
+    }
+
+    /**
+     * Counts the hands of each category at each seat, from the category column alone.
+     *
+     * @return counts[seat][category ordinal]
+     */
+    public long[][] categoryCountsBySeat() {
+        int seats = layout.seats;
+        long[][] counts = new long[seats][HandCategory.values().length];
+        for (int b = 0; b < blocks.length; b++) {
+            ByteBuffer block = blocks[b];
+            int end = layout.categoryColumn + tablesIn(b) * seats;
+            for (int at = layout.categoryColumn, seat = 0; at < end; at++) {
+                counts[seat][block.get(at)]++;
+                if (++seat == seats) {
+                    seat = 0;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the tables won by each category, from the winner and category columns.
+     *
+     * @return counts[category ordinal]
+     */
+    public long[] winningCategoryCounts() {
+        int seats = layout.seats;
+        long[] counts = new long[HandCategory.values().length];
+        for (int b = 0; b < blocks.length; b++) {
+            ByteBuffer block = blocks[b];
+            int end = tablesIn(b);
+            for (int t = 0; t < end; t++) {
+                counts[block.get(layout.categoryColumn + t * seats + block.get(layout.winnerColumn + t))]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts, for each category, the hands that won their table or tied with the winner,
+     * from the winner and strength columns. Hands tie when the legacy rules the table was
+     * ranked by leave them equal (see HandStrength.legacyStrength).
+     *
+     * @return counts[category ordinal]
+     */
+    public long[] winsByCategory() {
+        int seats = layout.seats;
+        long[] counts = new long[HandCategory.values().length];
+        for (int b = 0; b < blocks.length; b++) {
+            ByteBuffer block = blocks[b];
+            int end = tablesIn(b);
+            for (int t = 0; t < end; t++) {
+                int row = layout.strengthColumn + t * seats * 4;
+                int best = HandStrength.legacyStrength(block.getInt(row + block.get(layout.winnerColumn + t) * 4));
+                for (int seat = 0; seat < seats; seat++) {
+                    if (HandStrength.legacyStrength(block.getInt(row + seat * 4)) == best) {
+                        counts[block.get(layout.categoryColumn + t * seats + seat)]++;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @param category A hand category
+     * @return The fraction of hands of the category that won their table or tied with
+     *         the winner (see winsByCategory), or 0 if there were none
+     */
+    public double winRate(HandCategory category) {
+        long hands = 0;
+        for (long[] seat : categoryCountsBySeat()) {
+            hands += seat[category.ordinal()];
+        }
+        return hands == 0 ? 0 : (double) winsByCategory()[category.ordinal()] / hands;
+    }
+
+    /**
+     * @return A table of the hands of each category at each seat, and how often each category won
+     */
+    public String summary() {
+        int seats = layout.seats;
+        long[][] bySeat = categoryCountsBySeat();
+        long[] winners = winningCategoryCounts();
+        long[] wins = winsByCategory();
+
+        StringBuilder text = new StringBuilder("--- " + tables + " TABLES OF " + seats + " HANDS ---\n");
+        text.append(String.format("%-22s", "Category"));
+        for (int seat = 0; seat < seats; seat++) {
+            text.append(String.format("%12s", "Seat " + (seat + 1)));
+        }
+        text.append(String.format("%12s%10s%n", "Won tables", "Win rate"));
+        for (HandCategory category : HandCategory.values()) {
+            int c = category.ordinal();
+            long hands = 0;
+            text.append(String.format("%-22s", category.label));
+            for (int seat = 0; seat < seats; seat++) {
+                text.append(String.format("%12d", bySeat[seat][c]));
+                hands += bySeat[seat][c];
+            }
+            text.append(String.format("%12d%9.2f%%%n", winners[c], hands == 0 ? 0 : 100.0 * wins[c] / hands));
+        }
+        return text.toString();
+    }
+
+    private ByteBuffer block(long table) {
+        if (table < 0 || table >= tables) {
+            throw new IndexOutOfBoundsException("Table " + table + " of " + tables);
+        }
+        return blocks[(int) (table / HandStore.BLOCK_TABLES)];
+    }
+
+    private int checkSeat(int seat) {
+        if (seat < 0 || seat >= layout.seats) {
+            throw new IndexOutOfBoundsException("Seat " + seat + " of " + layout.seats);
+        }
+        return seat;
+    }
+
+    /**
+     * @return The number of tables in a block
+     */
+    private int tablesIn(int block) {
+        return (int) Math.min(HandStore.BLOCK_TABLES, tables - (long) block * HandStore.BLOCK_TABLES);
+    }
+
+    /**
+     * Closes the file. The mapped blocks stay readable until they are garbage collected.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * The HandStoreWriter class appends ranked tables to a HandStore file. The file is
+ * mapped into memory a block at a time and each table's fields are put straight into
+ * their columns, so appending builds no objects and makes no system calls until a
+ * block fills up. The number of tables in the header is brought up to date by flush
+ * and close; tables appended after the last flush are lost if the process dies.
+ *
+ * A HandStoreWriter must not be shared between threads.
+ */
+public class HandStoreWriter implements Closeable, Flushable {
+    private final HandStore layout;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer block;
+    private long tables;
+
+    /**
+     * Opens a store to append to, creating it if it does not exist.
+     *
+     * @param path The store file
+     * @param seats Number of hands at each table; an existing store must have the same
+     * @throws IOException if the file cannot be opened or is not a store of tables this size
+     * @throws IllegalArgumentException if the number of hands is out of range
+     */
+    public HandStoreWriter(Path path, int seats) throws IOException {
+        HandStore wanted = new HandStore(seats);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean empty = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HandStore.HEADER_SIZE);
+            if (empty) {
+                layout = wanted;
+                layout.writeHeader(header);
+            } else {
+                layout = HandStore.readHeader(header);
+                if (layout.seats != seats) {
+                    throw new IOException("Expected a store of " + seats + " hands, found " + layout.seats);
+                }
+                tables = HandStore.getTableCount(header);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends one ranked table, with the same arguments as ResultWriter.writeTable.
+     *
+     * @param cards Array holding the card ids of the table, five per seat in seat order
+     * @param from Index of the table's first card
+     * @param order Array holding the seat indexes from best to worst hand
+     * @param strengths Array holding the hand strengths in the same order as the seats in order
+     * @param at Index of the table's best hand in order and strengths
+     * @throws IOException if the next block cannot be mapped
+     */
+    public void append(int[] cards, int from, int[] order, int[] strengths, int at) throws IOException {
+        int t = (int) (tables % HandStore.BLOCK_TABLES);
+        if (t == 0 || block == null) {
+            mapBlock(tables / HandStore.BLOCK_TABLES);
+        }
+        int seats = layout.seats;
+
+        int count = seats * 5;
+        int cardsAt = layout.cardsColumn + t * layout.cardWords * 8;
+        for (int w = 0; w < layout.cardWords; w++) {
+            long word = 0;
+            for (int k = 0; k < HandStore.CARDS_PER_WORD && w * HandStore.CARDS_PER_WORD + k < count; k++) {
+                word |= (long) cards[from + w * HandStore.CARDS_PER_WORD + k] << (k * HandStore.CARD_BITS);
+            }
+            block.putLong(cardsAt + w * 8, word);
+        }
+
+        for (int i = 0; i < seats; i++) {
+            int seat = order[at + i];
+            int strength = strengths[at + i];
+            block.put(layout.categoryColumn + t * seats + seat, (byte) HandStrength.category(strength).ordinal());
+            block.putInt(layout.strengthColumn + (t * seats + seat) * 4, strength);
+        }
+        block.put(layout.winnerColumn + t, (byte) order[at]);
+        tables++;
+    }
+
+    private void mapBlock(long index) throws IOException {
+        block = channel.map(FileChannel.MapMode.READ_WRITE, layout.blockOffset(index), layout.blockSize);
+        block.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes the number of tables to the header and forces the mapped pages to the file.
+     */
+    @Override
+    public void flush() {
+        HandStore.setTableCount(header, tables);
+        if (block != null) {
+            block.force();
+        }
+        header.force();
+    }
+
+    /**
+     * Flushes and closes the file.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * @return The number of tables in the store, including those appended before it was opened
+     */
+    public long getTables() {
+        return tables;
+    }
+
+    /**
+     * @return The number of hands at each table
+     */
+    public int getSeats() {
+        return layout.seats;
+    }
+}
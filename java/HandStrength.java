@@ -0,0 +1,435 @@
+/**
+ * The HandStrength class maps any five card hand to a single strength value.
+ * A higher strength is a better hand, and comparing strengths gives the same
+ * result as the tie breaker rules used when printing the winning hand order.
+ *
+ * The strengths of all 2,598,960 hands are worked out once and stored in a table
+ * indexed by the combination number of the hand's cards, so evaluating a hand is
+ * a few bit operations and one array read.
+ *
+ * Layout of a strength value:
+ * <pre>
+ *   bits 22-25  category, 15 - order (10 for a royal straight flush, 1 for high card)
+ *   bits  0-21  tie break fields of the category, most significant first:
+ *     Royal Straight Flush, Straight Flush   suit, high card
+ *     Four of a Kind                         set, kicker
+ *     Full House                             set, pair
+ *     Flush                                  suit, five cards high to low
+ *     Straight                               suit letter of the highest card, high card
+ *     Three of a Kind                        set, two kickers high to low, suit of the highest kicker
+ *     Two Pair                               suit of the first dealt card of the higher pair, pairs, kicker
+ *     Pair                                   suit of the highest kicker, pair, three kickers high to low
+ *     High Card                              suit of the highest card, five cards high to low
+ * </pre>
+ * Suits are ranked D &lt; C &lt; H &lt; S, except for straights, which compare the suit
+ * letters themselves (C &lt; D &lt; H &lt; S). Face values break ties the suit rules leave open.
+ */
+public final class HandStrength {
+    /** Number of distinct five card hands */
+    public static final int HAND_COUNT = 2598960;
+
+    /** Bit position of the category in a strength value */
+    private static final int CATEGORY_SHIFT = 22;
+
+    /** Bit position of the suit of the higher pair in a two pair strength */
+    private static final int TWO_PAIR_SUIT_SHIFT = 12;
+
+    /** CHOOSE[k][n] is the number of ways to pick k cards out of n */
+    private static final int[][] CHOOSE = new int[6][CreateCard.DECK_SIZE + 1];
+
+    /** Categories indexed by their strength value */
+    private static final HandCategory[] CATEGORIES = new HandCategory[11];
+
+    /** Strengths indexed by the combination number of the hand */
+    private static final int[] TABLE = new int[HAND_COUNT];
+
+    /** Tie break fields the legacy tieBreakers rules compare, indexed by category value */
+    private static final int[] LEGACY_FIELDS = {
+        0,
+        3 << 20,       // High Card: suit of the highest card
+        3 << 16,       // Pair: suit of the highest kicker
+        3 << TWO_PAIR_SUIT_SHIFT, // Two Pair: suit of the first dealt card of the higher pair
+        0x3FFFFF,      // Three of a Kind: all of them
+        3 << 4,        // Straight: suit letter of the highest card
+        3 << 20,       // Flush: suit
+        0xF << 4,      // Full House: set
+        0x3FFFFF,      // Four of a Kind: all of them
+        3 << 4,        // Straight Flush: suit
+        3 << 4         // Royal Straight Flush: suit
+    };
+
+    static {
+        for (int n = 0; n <= CreateCard.DECK_SIZE; n++) {
+            CHOOSE[0][n] = 1;
+            for (int k = 1; k < 6; k++) {
+                CHOOSE[k][n] = n == 0 ? 0 : CHOOSE[k][n - 1] + CHOOSE[k - 1][n - 1];
+            }
+        }
+        for (HandCategory category : HandCategory.values()) {
+            CATEGORIES[15 - category.order] = category;
+        }
+        buildTable();
+    }
+
+    private HandStrength() {
+    }
+
+    /**
+     * Gets the strength of five cards stored as card ids.
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card of the hand
+     * @return The strength of the hand, higher is better
+     */
+    public static int of(int[] cards, int from) {
+        return withDealtOrder(TABLE[index(mask(cards, from))], cards, from);
+    }
+
+    /**
+     * Gets the bitmask of five cards, with one bit per card id. The mask is the same
+     * whatever order the cards are in, so it can serve as the hand's canonical key.
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card of the hand
+     * @return The bitmask of the hand
+     * @throws IllegalArgumentException if a card appears twice
+     */
+    public static long mask(int[] cards, int from) {
+        long mask = (1L << cards[from]) | (1L << cards[from + 1]) | (1L << cards[from + 2])
+                  | (1L << cards[from + 3]) | (1L << cards[from + 4]);
+        if (Long.bitCount(mask) != 5) {
+            throw new IllegalArgumentException("Duplicate card in hand: " + CreateCard.join(cards, from, 5));
+        }
+        return mask;
+    }
+
+    /**
+     * Applies the dealt order of a hand to a strength worked out from its cards alone,
+     * such as one from ofMask. Only two pair hands change: the suit rule looks at the
+     * first dealt card of the higher pair, which a bitmask cannot tell.
+     *
+     * @param strength The strength of the hand's cards
+     * @param cards Array holding the card ids in dealt order
+     * @param from Index of the first card of the hand
+     * @return The strength of the hand as dealt
+     */
+    public static int withDealtOrder(int strength, int[] cards, int from) {
+        if (strength >>> CATEGORY_SHIFT == 15 - HandCategory.TWO_PAIR.order) {
+            int high = (strength >>> 8) & 15;
+            int c0 = cards[from], c1 = cards[from + 1], c2 = cards[from + 2];
+            int suit = CreateCard.faceValue(c0) == high ? c0
+                     : CreateCard.faceValue(c1) == high ? c1
+                     : CreateCard.faceValue(c2) == high ? c2 : cards[from + 3];
+            strength = strength & ~(3 << TWO_PAIR_SUIT_SHIFT) | CreateCard.suitIndex(suit) << TWO_PAIR_SUIT_SHIFT;
+        }
+        return strength;
+    }
+
+    /**
+     * Gets the strength of a hand given as a bitmask with one bit per card id.
+     * Two pair hands get the suit of the higher pair from its best card, since
+     * a bitmask carries no dealt order.
+     *
+     * @param mask Bitmask holding exactly five cards
+     * @return The strength of the hand, higher is better
+     */
+    public static int ofMask(long mask) {
+        if (Long.bitCount(mask) != 5) {
+            throw new IllegalArgumentException("A hand needs five different cards");
+        }
+        int strength = TABLE[index(mask)];
+        if (strength >>> CATEGORY_SHIFT == 15 - HandCategory.TWO_PAIR.order) {
+            int high = (strength >>> 8) & 15;
+            long pairCards = mask & (0xFL << (CreateCard.of(high, 0)));
+            strength |= CreateCard.suitIndex(63 - Long.numberOfLeadingZeros(pairCards)) << TWO_PAIR_SUIT_SHIFT;
+        }
+        return strength;
+    }
+
+    /**
+     * Gives the strength of the same hand with its suits renamed, as SuitIsomorphism does.
+     * Each suit tie break field is renamed; two pair takes the best suit of the higher
+     * pair from the renamed cards, since which suit is best depends on the names.
+     *
+     * @param strength Strength of the hand, as given by ofMask
+     * @param permutation A suit permutation, see SuitIsomorphism
+     * @param renamedMask Card mask of the hand after renaming
+     * @return The strength of the renamed hand, as ofMask would give it
+     */
+    public static int permuteSuits(int strength, int permutation, long renamedMask) {
+        switch (category(strength)) {
+            case ROYAL_STRAIGHT_FLUSH:
+            case STRAIGHT_FLUSH:
+                return permuteField(strength, 4, permutation);
+            case FLUSH:
+            case HIGH_CARD:
+                return permuteField(strength, 20, permutation);
+            case STRAIGHT: {
+                // The field holds the suit letter order C < D < H < S, which swaps D and C
+                int letter = (strength >>> 4) & 3;
+                int suit = letter < 2 ? 1 - letter : letter;
+                suit = permutation >>> (suit << 1) & 3;
+                return strength & ~(3 << 4) | (suit < 2 ? 1 - suit : suit) << 4;
+            }
+            case THREE_OF_A_KIND:
+                return permuteField(strength, 0, permutation);
+            case TWO_PAIR: {
+                int high = (strength >>> 8) & 15;
+                long pairCards = renamedMask & (0xFL << (CreateCard.of(high, 0)));
+                return strength & ~(3 << TWO_PAIR_SUIT_SHIFT)
+                        | CreateCard.suitIndex(63 - Long.numberOfLeadingZeros(pairCards)) << TWO_PAIR_SUIT_SHIFT;
+            }
+            case PAIR:
+                return permuteField(strength, 16, permutation);
+            default:
+                return strength;
+        }
+    }
+
+    private static int permuteField(int strength, int shift, int permutation) {
+        int suit = (strength >>> shift) & 3;
+        return strength & ~(3 << shift) | (permutation >>> (suit << 1) & 3) << shift;
+    }
+
+    /**
+     * @param strength A strength value
+     * @return The category of the hand
+     */
+    public static HandCategory category(int strength) {
+        return CATEGORIES[strength >>> CATEGORY_SHIFT];
+    }
+
+    /**
+     * Keeps the category and only the tie break fields the legacy tieBreakers rules
+     * compare, so hands those rules leave tied get equal values. Where the full strength
+     * breaks such a tie by face value, a table ordered by this keeps today's order.
+     *
+     * @param strength A strength value
+     * @return The strength with the fields the legacy rules ignore cleared
+     */
+    public static int legacyStrength(int strength) {
+        int category = strength >>> CATEGORY_SHIFT;
+        return strength & (-1 << CATEGORY_SHIFT | LEGACY_FIELDS[category]);
+    }
+
+    /**
+     * Builds a key that sorts hands from best to worst with a plain ascending sort of longs.
+     * Hands of equal strength are ordered by id.
+     *
+     * @param strength The strength of the hand
+     * @param id A non negative id for the hand, such as its seat
+     * @return The rank key
+     */
+    public static long rankKey(int strength, int id) {
+        return (long) -strength << 32 | id;
+    }
+
+    /**
+     * Puts the rank keys of a table's hands in the order the legacy ranking gave them:
+     * sorted by category keeping their dealt order, then each place filled by swapping
+     * in any later hand of the same category that beats it, as tieBreakers did. Built
+     * from legacyStrength values, the keys then come out in today's order, including
+     * where those swaps move tied hands out of dealt order, which a sort would not.
+     *
+     * The keys are sorted, and where no two hands of a category tie that is already the
+     * order the swaps give. Only a category holding tied hands is put back in dealt order
+     * and swapped, so the pairwise pass runs over the hands of that category alone.
+     *
+     * @param keys Array holding the rank keys of the hands, with their seats in dealt order as ids
+     * @param count Number of hands
+     */
+    public static void sortLegacy(long[] keys, int count) {
+        java.util.Arrays.sort(keys, 0, count);
+        for (int start = 0, end; start < count; start = end) {
+            int category = rankKeyStrength(keys[start]) >>> CATEGORY_SHIFT;
+            boolean tied = false;
+            for (end = start + 1; end < count && rankKeyStrength(keys[end]) >>> CATEGORY_SHIFT == category; end++) {
+                tied |= rankKeyStrength(keys[end]) == rankKeyStrength(keys[end - 1]);
+            }
+            if (tied) {
+                swapTies(keys, start, end);
+            }
+        }
+    }
+
+    /**
+     * Orders the keys of one category as tieBreakers did: back in dealt order, then each
+     * place swapped with any later hand that beats it.
+     */
+    private static void swapTies(long[] keys, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            long key = keys[i];
+            int j = i;
+            for (; j > start && rankKeyId(keys[j - 1]) > rankKeyId(key); j--) {
+                keys[j] = keys[j - 1];
+            }
+            keys[j] = key;
+        }
+        for (int i = start; i < end; i++) {
+            for (int j = i + 1; j < end; j++) {
+                if (rankKeyStrength(keys[j]) > rankKeyStrength(keys[i])) {
+                    long key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param rankKey A key built by rankKey
+     * @return The id stored in the key
+     */
+    public static int rankKeyId(long rankKey) {
+        return (int) rankKey;
+    }
+
+    /**
+     * @param rankKey A key built by rankKey
+     * @return The strength stored in the key
+     */
+    public static int rankKeyStrength(long rankKey) {
+        return (int) -(rankKey >> 32);
+    }
+
+    /**
+     * Gets the combination number of a five card hand, from 0 to HAND_COUNT - 1.
+     *
+     * @param mask Bitmask holding exactly five cards
+     * @return The index of the hand in the strength table
+     */
+    public static int index(long mask) {
+        int index = 0;
+        for (int k = 1; k <= 5; k++) {
+            int card = Long.numberOfTrailingZeros(mask);
+            index += CHOOSE[k][card];
+            mask &= mask - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Fills the table by walking every hand once.
+     */
+    private static void buildTable() {
+        int[] rankCount = new int[15];
+        int[] suitCount = new int[4];
+        int[] hand = new int[5];
+
+        for (int e = 4; e < CreateCard.DECK_SIZE; e++) {
+            for (int d = 3; d < e; d++) {
+                for (int c = 2; c < d; c++) {
+                    for (int b = 1; b < c; b++) {
+                        for (int a = 0; a < b; a++) {
+                            hand[0] = a;
+                            hand[1] = b;
+                            hand[2] = c;
+                            hand[3] = d;
+                            hand[4] = e;
+                            int index = CHOOSE[1][a] + CHOOSE[2][b] + CHOOSE[3][c] + CHOOSE[4][d] + CHOOSE[5][e];
+                            TABLE[index] = compute(hand, rankCount, suitCount);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Works out the strength of a hand with the face values and suits counted.
+     * The cards are sorted from lowest to highest id, so the last card of a face
+     * value is the one with the highest suit.
+     */
+    private static int compute(int[] hand, int[] rankCount, int[] suitCount) {
+        java.util.Arrays.fill(rankCount, 0);
+        java.util.Arrays.fill(suitCount, 0);
+        for (int card : hand) {
+            rankCount[CreateCard.faceValue(card)]++;
+            suitCount[CreateCard.suitIndex(card)]++;
+        }
+
+        int highest = hand[4];
+        boolean flush = suitCount[CreateCard.suitIndex(highest)] == 5;
+        int straightHigh = straightHigh(rankCount);
+
+        if (flush && straightHigh == 14) {
+            return build(HandCategory.ROYAL_STRAIGHT_FLUSH, CreateCard.suitIndex(highest) << 4 | straightHigh);
+        } else if (flush && straightHigh > 0) {
+            return build(HandCategory.STRAIGHT_FLUSH, CreateCard.suitIndex(highest) << 4 | straightHigh);
+        }
+
+        int quad = 0, set = 0, highPair = 0, lowPair = 0;
+        int singles = 0, singleCount = 0;
+        for (int rank = 14; rank >= 2; rank--) {
+            switch (rankCount[rank]) {
+                case 4: quad = rank; break;
+                case 3: set = rank; break;
+                case 2:
+                    if (highPair == 0) {
+                        highPair = rank;
+                    } else {
+                        lowPair = rank;
+                    }
+                    break;
+                case 1:
+                    singles = singles << 4 | rank;
+                    singleCount++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // Suit of the highest card that is not part of a pair or set
+        int singleSuit = 0;
+        for (int k = 4; k >= 0; k--) {
+            if (rankCount[CreateCard.faceValue(hand[k])] == 1) {
+                singleSuit = CreateCard.suitIndex(hand[k]);
+                break;
+            }
+        }
+
+        if (quad > 0) {
+            return build(HandCategory.FOUR_OF_A_KIND, quad << 4 | singles);
+        } else if (set > 0 && highPair > 0) {
+            return build(HandCategory.FULL_HOUSE, set << 4 | highPair);
+        } else if (flush) {
+            return build(HandCategory.FLUSH, CreateCard.suitIndex(highest) << 20 | singles);
+        } else if (straightHigh > 0) {
+            // Straights compare the suit letter of the highest card, so C comes before D
+            int letter = CreateCard.suitChar(highest) == 'C' ? 0 : CreateCard.suitChar(highest) == 'D' ? 1
+                       : CreateCard.suitIndex(highest);
+            return build(HandCategory.STRAIGHT, letter << 4 | straightHigh);
+        } else if (set > 0) {
+            return build(HandCategory.THREE_OF_A_KIND, set << 10 | singles << 2 | singleSuit);
+        } else if (highPair > 0 && lowPair > 0) {
+            // The suit of the higher pair is added by the caller
+            return build(HandCategory.TWO_PAIR, highPair << 8 | lowPair << 4 | singles);
+        } else if (highPair > 0) {
+            return build(HandCategory.PAIR, singleSuit << 16 | highPair << 12 | singles);
+        }
+        return build(HandCategory.HIGH_CARD, singleSuit << 20 | singles);
+    }
+
+    /**
+     * @return The highest face value of the straight, 5 for the low ace straight, or 0 if there is none
+     */
+    private static int straightHigh(int[] rankCount) {
+        int run = 0;
+        for (int rank = 2; rank <= 14; rank++) {
+            run = rankCount[rank] == 1 ? run + 1 : 0;
+            if (run == 5) {
+                return rank;
+            }
+        }
+        if (rankCount[14] == 1 && rankCount[2] == 1 && rankCount[3] == 1 &&
+            rankCount[4] == 1 && rankCount[5] == 1) {
+            return 5;
+        }
+        return 0;
+    }
+
+    private static int build(HandCategory category, int tieBreak) {
+        return (15 - category.order) << CATEGORY_SHIFT | tieBreak;
+    }
+}
@@ -0,0 +1,318 @@
+import java.util.*;
+
+/**
+ * The LegacyRanker class ranks a table the way the analyzer first did, before
+ * HandStrength: each hand is classified from its card strings with face value and
+ * suit counts, the hands are sorted by category, and tieBreakers then compares every
+ * pair of hands of the same category, swapping them by the suit and face value rules
+ * of rankSuits and the getHighCard helpers.
+ *
+ * It is kept, string handling and all, as the reference the fast path is checked
+ * against by ShadowRanker; it is far slower and should not rank tables otherwise.
+ * A LegacyRanker keeps no state between calls, so it can be shared between threads.
+ */
+public class LegacyRanker {
+    /**
+     * One seat's hand as the legacy code held it.
+     */
+    private static final class Entry {
+        int seat;
+        String hand;
+        int order;
+        List<String> wordList = new ArrayList<>();
+    }
+
+    /**
+     * Ranks the hands of a table.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @param seats Number of hands at the table
+     * @return The seat indexes from best to worst hand
+     */
+    public int[] rank(int[] cards, int from, int seats) {
+        Entry[] result = new Entry[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            result[seat] = classify(CreateCard.join(cards, from + seat * 5, 5));
+            result[seat].seat = seat;
+        }
+
+        Arrays.sort(result, Comparator.comparingInt(p -> p.order));
+        tieBreakers(result);
+
+        int[] order = new int[seats];
+        for (int i = 0; i < seats; i++) {
+            order[i] = result[i].seat;
+        }
+        return order;
+    }
+
+    /**
+     * Classifies a hand of space separated cards as Player.convertHand and setFinalScores did.
+     */
+    private static Entry classify(String cards) {
+        Entry entry = new Entry();
+        Map<Character, Integer> suitCount = new HashMap<>();
+        Map<Integer, Integer> rankCount = new HashMap<>();
+        for (String word : cards.split("\\s+")) {
+            entry.wordList.add(word);
+            char suitChar = word.charAt(word.length() - 1);
+            suitCount.put(suitChar, suitCount.getOrDefault(suitChar, 0) + 1);
+            int faceVal = getFaceValue(word.substring(0, word.length() - 1));
+            rankCount.put(faceVal, rankCount.getOrDefault(faceVal, 0) + 1);
+        }
+
+        boolean flush = suitCount.containsValue(5);
+        boolean straight = isStraight(rankCount);
+        boolean royal = rankCount.containsKey(10) && rankCount.containsKey(11) && rankCount.containsKey(12)
+                && rankCount.containsKey(13) && rankCount.containsKey(14);
+
+        int pairCount = 0;
+        boolean hasThreeOfAKind = false;
+        boolean hasFourOfAKind = false;
+        for (int count : rankCount.values()) {
+            if (count == 4) {
+                hasFourOfAKind = true;
+            } else if (count == 3) {
+                hasThreeOfAKind = true;
+            } else if (count == 2) {
+                pairCount++;
+            }
+        }
+
+        HandCategory category;
+        if (flush && straight && royal) {
+            category = HandCategory.ROYAL_STRAIGHT_FLUSH;
+        } else if (flush && straight) {
+            category = HandCategory.STRAIGHT_FLUSH;
+        } else if (hasFourOfAKind) {
+            category = HandCategory.FOUR_OF_A_KIND;
+        } else if (hasThreeOfAKind && pairCount == 1) {
+            category = HandCategory.FULL_HOUSE;
+        } else if (flush) {
+            category = HandCategory.FLUSH;
+        } else if (straight) {
+            category = HandCategory.STRAIGHT;
+        } else if (hasThreeOfAKind) {
+            category = HandCategory.THREE_OF_A_KIND;
+        } else if (pairCount == 2) {
+            category = HandCategory.TWO_PAIR;
+        } else if (pairCount == 1) {
+            category = HandCategory.PAIR;
+        } else {
+            category = HandCategory.HIGH_CARD;
+        }
+        entry.hand = category.label;
+        entry.order = category.order;
+        return entry;
+    }
+
+    private static boolean isStraight(Map<Integer, Integer> rankCount) {
+        List<Integer> rankings = new ArrayList<>(rankCount.keySet());
+        if (rankings.size() < 5) {
+            return false;
+        }
+        Collections.sort(rankings);
+        for (int i = 1; i < rankings.size(); i++) {
+            if (rankings.get(i) != rankings.get(i - 1) + 1) {
+                // Check for low ace straight
+                return rankings.equals(Arrays.asList(2, 3, 4, 5, 14));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Swaps the hands held by two entries, leaving the entries in place.
+     */
+    private static void swap(Entry a, Entry b) {
+        int seat = a.seat;
+        String hand = a.hand;
+        int order = a.order;
+        List<String> wordList = a.wordList;
+        a.seat = b.seat;
+        a.hand = b.hand;
+        a.order = b.order;
+        a.wordList = b.wordList;
+        b.seat = seat;
+        b.hand = hand;
+        b.order = order;
+        b.wordList = wordList;
+    }
+
+    /**
+     * Applies tiebreaker rules to rank hands of the same type.
+     */
+    private static void tieBreakers(Entry[] result) {
+        for (int i = 0; i < result.length; i++) {
+            for (int j = i + 1; j < result.length; j++) {
+                if (result[i].order == result[j].order && beats(result[j], result[i])) {
+                    swap(result[i], result[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares two hands of a table by the legacy rules alone: the category, then the
+     * tiebreaker rule of the category.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @param a Seat index of one hand
+     * @param b Seat index of the other hand
+     * @return A negative number if a's hand goes first, a positive number if b's does,
+     *         or 0 if the rules leave them tied
+     */
+    public int compare(int[] cards, int from, int a, int b) {
+        Entry first = classify(CreateCard.join(cards, from + a * 5, 5));
+        Entry second = classify(CreateCard.join(cards, from + b * 5, 5));
+        if (first.order != second.order) {
+            return Integer.compare(first.order, second.order);
+        }
+        return beats(second, first) ? 1 : beats(first, second) ? -1 : 0;
+    }
+
+    /**
+     * Tells whether a hand goes before another of the same category: tieBreakers swaps
+     * them when the later one beats the earlier one.
+     */
+    private static boolean beats(Entry j, Entry i) {
+        String hand = i.hand;
+        if (hand.equals("Straight Flush") || hand.equals("Flush") || hand.equals("Royal Straight Flush")) {
+            // Tiebreaker for flush-based hands
+            char suitI = lastSuit(i);
+            char suitJ = lastSuit(j);
+            return rankSuits(suitI) < rankSuits(suitJ)
+                    || rankSuits(suitI) == rankSuits(suitJ) && getHighCard(i) < getHighCard(j);
+        } else if (hand.equals("Straight")) {
+            return getHighCard(i) < getHighCard(j);
+        } else if (hand.equals("Two Pair")) {
+            return suitBeats(getHighCardInGroup(j, 2), getHighCardInGroup(i, 2));
+        } else if (hand.equals("Pair") || hand.equals("High Card")) {
+            return suitBeats(getHighCard(j), getHighCard(i));
+        } else if (hand.equals("Three of a Kind")) {
+            int rankI = getGroupRank(i, 3);
+            int rankJ = getGroupRank(j, 3);
+            if (rankI != rankJ) {
+                return rankI < rankJ;
+            }
+            List<Integer> kickersI = getKickers(i);
+            List<Integer> kickersJ = getKickers(j);
+            kickersI.sort(Collections.reverseOrder());
+            kickersJ.sort(Collections.reverseOrder());
+            for (int k = 0; k < kickersI.size(); k++) {
+                if (!kickersI.get(k).equals(kickersJ.get(k))) {
+                    return kickersI.get(k) < kickersJ.get(k);
+                }
+            }
+            return rankSuits(getHighCard(i)) < rankSuits(getHighCard(j));
+        } else if (hand.equals("Four of a Kind")) {
+            int rankI = getGroupRank(i, 4);
+            int rankJ = getGroupRank(j, 4);
+            return rankI < rankJ || rankI == rankJ && getGroupRank(i, 1) < getGroupRank(j, 1);
+        } else if (hand.equals("Full House")) {
+            // A full house has no single cards, so the kickers never break a tie
+            return getGroupRank(i, 3) < getGroupRank(j, 3);
+        }
+        return false;
+    }
+
+    /**
+     * The Two Pair, Pair and High Card rule: the better ranked suit goes first, then the later suit letter.
+     */
+    private static boolean suitBeats(char suitJ, char suitI) {
+        return rankSuits(suitI) < rankSuits(suitJ) || rankSuits(suitI) == rankSuits(suitJ) && suitI < suitJ;
+    }
+
+    /**
+     * Assigns a numerical rank to each suit for comparison purposes.
+     */
+    private static int rankSuits(char suit) {
+        switch (suit) {
+            case 'D': return 1;
+            case 'C': return 2;
+            case 'H': return 3;
+            case 'S': return 4;
+            default: return 0;
+        }
+    }
+
+    private static char lastSuit(Entry p) {
+        String last = p.wordList.get(p.wordList.size() - 1);
+        return last.charAt(last.length() - 1);
+    }
+
+    private static Map<String, Integer> countFaces(Entry p) {
+        Map<String, Integer> countMap = new HashMap<>();
+        for (String card : p.wordList) {
+            String face = card.substring(0, card.length() - 1);
+            countMap.put(face, countMap.getOrDefault(face, 0) + 1);
+        }
+        return countMap;
+    }
+
+    /**
+     * Gets the suit of the highest card that is not part of a pair or set, or ' ' if there is none.
+     */
+    private static char getHighCard(Entry p) {
+        return getHighCardInGroup(p, 1);
+    }
+
+    /**
+     * Gets the suit of the first dealt card of the highest face value held size times.
+     */
+    private static char getHighCardInGroup(Entry p, int size) {
+        Map<String, Integer> countMap = countFaces(p);
+        int highCard = -1;
+        char highSuit = ' ';
+        for (String card : p.wordList) {
+            String face = card.substring(0, card.length() - 1);
+            if (countMap.get(face) == size) {
+                int faceValue = getFaceValue(face);
+                if (faceValue > highCard) {
+                    highCard = faceValue;
+                    highSuit = card.charAt(card.length() - 1);
+                }
+            }
+        }
+        return highSuit;
+    }
+
+    /**
+     * Gets the face values of the cards that are not part of a pair or set, in dealt order.
+     */
+    private static List<Integer> getKickers(Entry p) {
+        Map<String, Integer> countMap = countFaces(p);
+        List<Integer> kickers = new ArrayList<>();
+        for (String card : p.wordList) {
+            String face = card.substring(0, card.length() - 1);
+            if (countMap.get(face) == 1) {
+                kickers.add(getFaceValue(face));
+            }
+        }
+        return kickers;
+    }
+
+    /**
+     * Gets the face value held size times, or -1 if there is none.
+     */
+    private static int getGroupRank(Entry p, int size) {
+        for (Map.Entry<String, Integer> entry : countFaces(p).entrySet()) {
+            if (entry.getValue() == size) {
+                return getFaceValue(entry.getKey());
+            }
+        }
+        return -1;
+    }
+
+    private static int getFaceValue(String faceString) {
+        switch (faceString) {
+            case "J": return 11;
+            case "Q": return 12;
+            case "K": return 13;
+            case "A": return 14;
+            default: return Integer.parseInt(faceString);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The LoadClient class sends random tables to a HandServer on this machine and reports
+ * the throughput and latency of the replies. Each connection sends its requests from
+ * one thread and reads the replies on another, keeping up to a given number of
+ * requests in flight (the pipeline depth); a depth of 1 waits for each reply.
+ *
+ * Usage: java LoadClient &lt;port&gt; [&lt;connections&gt; [&lt;requests per connection&gt; [&lt;depth&gt; [&lt;seats&gt;]]]]
+ */
+public class LoadClient {
+    private final int port;
+    private final int connections;
+    private final int requests;
+    private final int depth;
+    private final int seats;
+
+    /** Latency of every request, connection by connection, in nanoseconds */
+    private final long[] latencies;
+
+    /**
+     * @param port Port the server listens on
+     * @param connections Number of connections to open at once
+     * @param requests Requests sent on each connection
+     * @param depth Most requests in flight on a connection
+     * @param seats Hands at each table, from CreateDeck.MIN_SEATS to CreateDeck.MAX_SEATS
+     * @throws IllegalArgumentException if a count is not positive or the number of hands is out of range
+     */
+    public LoadClient(int port, int connections, int requests, int depth, int seats) {
+        if (connections <= 0 || requests <= 0 || depth <= 0 || (long) connections * requests > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Connections, requests and depth must be positive");
+        }
+        this.port = port;
+        this.connections = connections;
+        this.requests = requests;
+        this.depth = depth;
+        this.seats = CreateDeck.checkSeats(seats);
+        latencies = new long[connections * requests];
+    }
+
+    /**
+     * Sends every request and waits for every reply.
+     *
+     * @return The time taken in nanoseconds
+     * @throws IOException if a connection fails or a reply is not a ranking
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public long run() throws IOException, InterruptedException {
+        ExecutorService threads = HandServer.newThreadPerTaskExecutor();
+        List<Future<?>> runs = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            int connection = c;
+            runs.add(threads.submit(() -> {
+                runConnection(connection, threads);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            threads.shutdown();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void runConnection(int connection, ExecutorService threads) throws Exception {
+        SplittableRandom random = new SplittableRandom(connection);
+        AtomicLongArray sent = new AtomicLongArray(requests);
+        Semaphore inFlight = new Semaphore(depth);
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+
+            Future<?> sender = threads.submit(() -> {
+                int[] deck = new int[CreateCard.DECK_SIZE];
+                for (int i = 0; i < deck.length; i++) {
+                    deck[i] = i;
+                }
+                StringBuilder line = new StringBuilder();
+                for (int r = 0; r < requests; r++) {
+                    line.setLength(0);
+                    for (int i = 0; i < seats * 5; i++) {
+                        int j = i + random.nextInt(deck.length - i);
+                        int card = deck[j];
+                        deck[j] = deck[i];
+                        deck[i] = card;
+                        line.append(i > 0 ? "," : "").append(CreateCard.toString(card));
+                    }
+                    line.append('\n');
+                    if (!inFlight.tryAcquire()) {
+                        out.flush();
+                        inFlight.acquire();
+                    }
+                    sent.set(r, System.nanoTime());
+                    out.write(line.toString());
+                }
+                out.write(HandServer.QUIT + "\n");
+                out.flush();
+                return null;
+            });
+
+            try {
+                for (int r = 0; r < requests; r++) {
+                    String header = in.readLine();
+                    if (!HandServer.HEADER.equals(header)) {
+                        throw new IOException("Unexpected reply: " + header);
+                    }
+                    for (int i = 0; i <= seats; i++) {
+                        in.readLine();
+                    }
+                    latencies[connection * requests + r] = System.nanoTime() - sent.get(r);
+                    inFlight.release();
+                }
+                sender.get();
+            } finally {
+                sender.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @param percentile From 0 to 100
+     * @return The latency of that percentile of requests in nanoseconds, after run
+     */
+    public long percentile(double percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(sorted.length * percentile / 100) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Runs the load and prints the results.
+     * @param args The port, then optionally the connections, requests per connection,
+     *             pipeline depth and hands per table
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 5) {
+            System.err.println("Usage: java LoadClient <port> [<connections> [<requests per connection> [<depth> [<seats>]]]]");
+            System.exit(1);
+        }
+        try {
+            int port = Integer.parseInt(args[0]);
+            int connections = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            int requests = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+            int depth = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+            int seats = args.length > 4 ? Integer.parseInt(args[4]) : CreateDeck.DEFAULT_SEATS;
+            LoadClient client = new LoadClient(port, connections, requests, depth, seats);
+
+            // A first short run warms up both ends
+            new LoadClient(port, connections, Math.min(requests, 10000), depth, seats).run();
+            long nanos = client.run();
+            long total = (long) connections * requests;
+            System.out.printf("*** %d requests of %d hands over %d connections, depth %d, in %.1f ms%n",
+                    total, seats, connections, depth, nanos / 1e6);
+            System.out.printf("*** %.0f requests/s, latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                    total * 1e9 / nanos, client.percentile(50) / 1e3, client.percentile(99) / 1e3,
+                    client.percentile(100) / 1e3);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid argument: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Load run failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import jdk.jfr.*;
+
+/**
+ * The Metrics class times the phases of a run (see Phase): it counts the calls and the
+ * items they handle, and keeps a latency histogram for each phase with one bucket per
+ * power of two nanoseconds. Recording a call reads the clock once or twice and adds to three
+ * LongAdders, so it takes no locks and allocates nothing, and is cheap enough to leave
+ * on. Set the system property poker.metrics to false to turn it off entirely.
+ *
+ * While a JFR recording is running, each phase is also reported as a PhaseSummaryEvent
+ * every period, and each call that takes at least EVENT_THRESHOLD_NANOS (the system
+ * property poker.metrics.threshold, 1 ms unless set) as a PhaseEvent.
+ *
+ * A phase is timed like this:
+ * <pre>
+ *     long start = Metrics.start();
+ *     ...
+ *     Metrics.stop(Phase.RANK, start, seats);
+ * </pre>
+ */
+public final class Metrics {
+    /** Whether phases are timed */
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("poker.metrics"));
+
+    /** Shortest call reported as a PhaseEvent */
+    public static final long EVENT_THRESHOLD_NANOS = Long.getLong("poker.metrics.threshold", 1_000_000L);
+
+    /** Histogram buckets: bucket b holds calls shorter than 2^b nanoseconds */
+    private static final int BUCKETS = 64;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final LongAdder[] ITEMS = adders(PHASES.length);
+    private static final LongAdder[] NANOS = adders(PHASES.length);
+    private static final LongAdder[] HISTOGRAMS = adders(PHASES.length * BUCKETS);
+    private static final AtomicLongArray MAX_NANOS = new AtomicLongArray(PHASES.length);
+
+    private static final AtomicBoolean EXIT_HOOK = new AtomicBoolean();
+
+    static {
+        // Registering the periodic event starts JFR, which takes a moment, so wait for a
+        // recording to start it (at launch, or later with jcmd JFR.start)
+        if (ENABLED) {
+            if (FlightRecorder.isInitialized()) {
+                addSummaryEvent();
+            } else {
+                FlightRecorder.addListener(new FlightRecorderListener() {
+                    @Override
+                    public void recorderInitialized(FlightRecorder recorder) {
+                        addSummaryEvent();
+                    }
+                });
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * @return The start time to pass to stop, or 0 if metrics are off
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records one call of a phase that handled one item.
+     * @param phase The phase
+     * @param start The time start returned when the call began
+     * @return The time the call ended, which can be the start of the next phase
+     */
+    public static long stop(Phase phase, long start) {
+        return stop(phase, start, 1);
+    }
+
+    /**
+     * Records one call of a phase.
+     * @param phase The phase
+     * @param start The time start returned when the call began
+     * @param items Number of hands, tables or cards the call handled
+     * @return The time the call ended, which can be the start of the next phase
+     */
+    public static long stop(Phase phase, long start, long items) {
+        if (!ENABLED) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        long nanos = Math.max(0, end - start);
+        int p = phase.ordinal();
+        ITEMS[p].add(items);
+        NANOS[p].add(nanos);
+        HISTOGRAMS[p * BUCKETS + BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+        long max = MAX_NANOS.get(p);
+        while (nanos > max && !MAX_NANOS.compareAndSet(p, max, nanos)) {
+            max = MAX_NANOS.get(p);
+        }
+
+        if (nanos >= EVENT_THRESHOLD_NANOS && FlightRecorder.isInitialized()) {
+            PhaseEvent event = new PhaseEvent();
+            if (event.isEnabled()) {
+                event.phase = phase.label;
+                event.nanos = nanos;
+                event.items = items;
+                event.commit();
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @param phase The phase
+     * @return The number of calls recorded
+     */
+    public static long getCalls(Phase phase) {
+        long calls = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            calls += HISTOGRAMS[phase.ordinal() * BUCKETS + b].sum();
+        }
+        return calls;
+    }
+
+    /**
+     * @param phase The phase
+     * @return The number of items the recorded calls handled
+     */
+    public static long getItems(Phase phase) {
+        return ITEMS[phase.ordinal()].sum();
+    }
+
+    /**
+     * @param phase The phase
+     * @return The total time of the recorded calls in nanoseconds
+     */
+    public static long getTotalNanos(Phase phase) {
+        return NANOS[phase.ordinal()].sum();
+    }
+
+    /**
+     * @param phase The phase
+     * @return The longest recorded call in nanoseconds
+     */
+    public static long getMaxNanos(Phase phase) {
+        return MAX_NANOS.get(phase.ordinal());
+    }
+
+    /**
+     * Estimates a latency percentile from the histogram. The result is the upper bound
+     * of the bucket holding the percentile, so it is at most twice the true value.
+     *
+     * @param phase The phase
+     * @param percentile From 0 to 100
+     * @return The estimated latency in nanoseconds, or 0 if no calls were recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public static long percentile(Phase phase, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        int p = phase.ordinal();
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = HISTOGRAMS[p * BUCKETS + b].sum();
+            total += counts[b];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) {
+                return Math.min(b == BUCKETS - 1 ? Long.MAX_VALUE : 1L << b, getMaxNanos(phase));
+            }
+        }
+        return getMaxNanos(phase);
+    }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public static void reset() {
+        for (int p = 0; p < PHASES.length; p++) {
+            ITEMS[p].reset();
+            NANOS[p].reset();
+            MAX_NANOS.set(p, 0);
+        }
+        for (LongAdder bucket : HISTOGRAMS) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * @return A table of the calls, items and latencies of every phase that was called
+     */
+    public static String summary() {
+        StringBuilder text = new StringBuilder("--- PHASE METRICS ---\n");
+        text.append(String.format("%-14s%12s%14s%12s%10s%10s%10s%10s%n",
+                "Phase", "Calls", "Items", "Total ms", "Mean us", "p50 us", "p99 us", "Max us"));
+        for (Phase phase : PHASES) {
+            long calls = getCalls(phase);
+            if (calls == 0) {
+                continue;
+            }
+            long nanos = getTotalNanos(phase);
+            text.append(String.format("%-14s%12d%14d%12.1f%10.2f%10.2f%10.2f%10.2f%n",
+                    phase.label, calls, getItems(phase), nanos / 1e6, nanos / 1e3 / calls,
+                    percentile(phase, 50) / 1e3, percentile(phase, 99) / 1e3, getMaxNanos(phase) / 1e3));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Prints the summary to System.err when the JVM exits. Calling this more than once
+     * adds only one hook.
+     */
+    public static void printSummaryAtExit() {
+        if (EXIT_HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(summary()), "metrics-summary"));
+        }
+    }
+
+    /**
+     * Prints the summary to System.err each time the process receives a signal, e.g.
+     * "USR2" for kill -USR2. Signals the JVM uses itself (such as QUIT) cannot be taken,
+     * and some platforms support no signals at all. sun.misc.Signal is looked up
+     * reflectively, so the build does not depend on the JDK's internal API.
+     *
+     * @param signal Name of the signal, without the SIG prefix
+     * @throws IllegalArgumentException if the signal cannot be handled on this platform
+     */
+    public static void printSummaryOnSignal(String signal) {
+        try {
+            Class<?> signalClass = Class.forName("sun.misc.Signal");
+            Class<?> handlerClass = Class.forName("sun.misc.SignalHandler");
+            Object handler = Proxy.newProxyInstance(handlerClass.getClassLoader(), new Class<?>[] {handlerClass},
+                    (proxy, method, methodArgs) -> {
+                        switch (method.getName()) {
+                            case "handle":
+                                System.err.print(summary());
+                                return null;
+                            case "equals":
+                                return proxy == methodArgs[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return "metrics-summary";
+                        }
+                    });
+            Object received = signalClass.getConstructor(String.class).newInstance(signal.toUpperCase(Locale.ROOT));
+            signalClass.getMethod("handle", signalClass, handlerClass).invoke(null, received, handler);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // No sun.misc.Signal, an unknown signal, or one the JVM keeps for itself
+            throw new IllegalArgumentException("Invalid signal: " + signal, e);
+        }
+    }
+
+    private static void addSummaryEvent() {
+        FlightRecorder.addPeriodicEvent(PhaseSummaryEvent.class, Metrics::emitSummaryEvents);
+    }
+
+    private static void emitSummaryEvents() {
+        for (Phase phase : PHASES) {
+            PhaseSummaryEvent event = new PhaseSummaryEvent();
+            event.phase = phase.label;
+            event.calls = getCalls(phase);
+            event.items = getItems(phase);
+            event.totalNanos = getTotalNanos(phase);
+            event.p50Nanos = percentile(phase, 50);
+            event.p99Nanos = percentile(phase, 99);
+            event.maxNanos = getMaxNanos(phase);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * The OutputFormat enum lists the ways ResultWriter can write ranked tables.
+ */
+public enum OutputFormat {
+    /** Every hand of every table, best first, as the analyzer prints a single table */
+    TEXT,
+    /** Only the winning hand of each table (every hand the legacy rules leave tied with it) */
+    WINNERS,
+    /** Only the number of tables won by each category, after the last table */
+    SUMMARY,
+    /** One comma separated line per hand: table, place, seat, cards, category, strength */
+    CSV,
+    /** Fixed size binary records, see ResultWriter */
+    BINARY;
+
+    /**
+     * Finds a format by name, ignoring case (e.g., "csv").
+     * @param name Name of the format
+     * @return The format
+     * @throws IllegalArgumentException if there is no format with the name
+     */
+    public static OutputFormat parse(String name) {
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid output format: " + name);
+    }
+}
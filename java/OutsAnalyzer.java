@@ -0,0 +1,263 @@
+import java.util.*;
+
+/**
+ * The OutsAnalyzer class finds each seat's outs after a deal: the cards left in the deck
+ * that would, dealt to the seat as a sixth card with the best five of the six played,
+ * either make a better category of hand or take the table from the hand winning it.
+ * The chance of each is the number of such cards over the number of cards left.
+ *
+ * The hand winning the table is the one the table's ranking puts first, so hands are
+ * compared as that ranking compares them, by HandStrength.legacyStrength: a seat takes
+ * the lead when its new hand beats every other hand under the legacy tiebreaker rules.
+ *
+ * The cards left and each seat's outs are bitmasks, one bit per card id, and every card
+ * left is tried against every seat in one pass over the mask. A card can only make a
+ * better category by pairing one of the seat's face values, filling a four card flush or
+ * filling a straight, so each seat first builds the mask of those cards; any other card
+ * keeps the seat's category and is only evaluated when that category could still take
+ * the lead. An OutsAnalyzer keeps its working arrays between calls, so it can run after
+ * every deal; it must not be shared between threads.
+ */
+public class OutsAnalyzer {
+    /** Face value bits, bit face - 2, of the low ace straight: A, 2, 3, 4, 5 */
+    private static final int WHEEL = 1 << 12 | 0xF;
+
+    /** Cards of the diamond suit; shifted left by the suit index for the other suits */
+    private static final long DIAMONDS = 0x1111111111111L;
+
+    /**
+     * The SeatOuts class holds one seat's outs.
+     */
+    public static final class SeatOuts {
+        /** The seat index */
+        public final int seat;
+        /** The strength of the seat's hand as dealt */
+        public final int strength;
+        /** Cards that would make a better category */
+        public final long improving;
+        /** Cards that would make the seat the only winner of the table under the legacy rules */
+        public final long leading;
+        /** Number of cards left in the deck */
+        public final int remaining;
+
+        SeatOuts(int seat, int strength, long improving, long leading, int remaining) {
+            this.seat = seat;
+            this.strength = strength;
+            this.improving = improving;
+            this.leading = leading;
+            this.remaining = remaining;
+        }
+
+        /**
+         * @return The bitmask of every out, one bit per card id
+         */
+        public long getOuts() {
+            return improving | leading;
+        }
+
+        /**
+         * @return The number of outs
+         */
+        public int count() {
+            return Long.bitCount(getOuts());
+        }
+
+        /**
+         * @return The chance that the next card dealt is an out
+         */
+        public double probability() {
+            return remaining == 0 ? 0 : (double) count() / remaining;
+        }
+
+        /**
+         * @return The card ids of the outs, lowest first
+         */
+        public int[] cards() {
+            int[] cards = new int[count()];
+            int i = 0;
+            for (long rest = getOuts(); rest != 0; rest &= rest - 1) {
+                cards[i++] = Long.numberOfTrailingZeros(rest);
+            }
+            return cards;
+        }
+
+        /**
+         * Formats the outs, e.g. "Pair: 3 outs (6.8%): 9D 9H 9S, 3 to improve, 0 to take the lead".
+         */
+        @Override
+        public String toString() {
+            int[] cards = cards();
+            StringBuilder text = new StringBuilder(HandStrength.category(strength).label)
+                    .append(": ").append(cards.length).append(cards.length == 1 ? " out" : " outs")
+                    .append(String.format(" (%.1f%%)", 100 * probability()));
+            if (cards.length > 0) {
+                text.append(": ").append(CreateCard.join(cards, 0, cards.length));
+            }
+            return text.append(", ").append(Long.bitCount(improving)).append(" to improve, ")
+                    .append(Long.bitCount(leading)).append(" to take the lead").toString();
+        }
+    }
+
+    private final int seats;
+    private final int[] strengths;
+    // For each seat and each of its cards, the hand with that card dropped and a slot for the new one
+    private final int[] dropped;
+
+    /**
+     * @param seats Number of hands at the table, from CreateDeck.MIN_SEATS to CreateDeck.MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
+     */
+    public OutsAnalyzer(int seats) {
+        this.seats = CreateDeck.checkSeats(seats);
+        strengths = new int[seats];
+        dropped = new int[seats * 25];
+    }
+
+    /**
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @param seats Number of hands at the table
+     * @return The bitmask of the cards not dealt to the table
+     * @throws IllegalArgumentException if a card appears twice
+     */
+    public static long remainingMask(int[] cards, int from, int seats) {
+        long dealt = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            dealt |= HandStrength.mask(cards, from + seat * 5);
+        }
+        if (Long.bitCount(dealt) != seats * 5) {
+            throw new IllegalArgumentException("Card dealt twice: " + CreateCard.join(cards, from, seats * 5));
+        }
+        return ~dealt & (1L << CreateCard.DECK_SIZE) - 1;
+    }
+
+    /**
+     * Finds the outs of every seat of a table, with every card not dealt to it left in the deck.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @return The outs of each seat, in seat order
+     * @throws IllegalArgumentException if a card appears twice
+     */
+    public SeatOuts[] analyze(int[] cards, int from) {
+        return analyze(cards, from, remainingMask(cards, from, seats));
+    }
+
+    /**
+     * Finds the outs of every seat of a table.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @param remaining Bitmask of the cards left in the deck, none of them dealt to the table
+     * @return The outs of each seat, in seat order
+     * @throws IllegalArgumentException if a card appears twice in a hand or is both dealt and left
+     */
+    public SeatOuts[] analyze(int[] cards, int from, long remaining) {
+        int best = -1;
+        int bestCount = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            strengths[seat] = HandStrength.of(cards, from + seat * 5);
+            if ((HandStrength.mask(cards, from + seat * 5) & remaining) != 0) {
+                throw new IllegalArgumentException("Card both dealt and left: " + CreateCard.join(cards, from + seat * 5, 5));
+            }
+            int legacy = HandStrength.legacyStrength(strengths[seat]);
+            if (legacy > best) {
+                best = legacy;
+                bestCount = 1;
+            } else if (legacy == best) {
+                bestCount++;
+            }
+        }
+        HandCategory bestCategory = HandStrength.category(best);
+
+        // Cards that can change each seat's category, and the seats worth trying the rest of the cards on
+        long[] candidates = new long[seats];
+        boolean[] contending = new boolean[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            int hand = from + seat * 5;
+            candidates[seat] = candidates(cards, hand);
+            contending[seat] = (HandStrength.legacyStrength(strengths[seat]) != best || bestCount > 1)
+                    && HandStrength.category(strengths[seat]) == bestCategory;
+            for (int drop = 0; drop < 5; drop++) {
+                for (int k = 0, at = (seat * 5 + drop) * 5; k < 5; k++) {
+                    if (k != drop) {
+                        dropped[at++] = cards[hand + k];
+                    }
+                }
+            }
+        }
+
+        long[] improving = new long[seats];
+        long[] leading = new long[seats];
+        for (long rest = remaining; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            long bit = rest & -rest;
+            for (int seat = 0; seat < seats; seat++) {
+                boolean candidate = (candidates[seat] & bit) != 0;
+                if (!candidate && !contending[seat]) {
+                    continue;
+                }
+                int strength = strengths[seat];
+                for (int drop = 0; drop < 5; drop++) {
+                    int at = (seat * 5 + drop) * 5;
+                    dropped[at + 4] = card;
+                    strength = Math.max(strength, HandStrength.of(dropped, at));
+                }
+                if (candidate && HandStrength.category(strength).order < HandStrength.category(strengths[seat]).order) {
+                    improving[seat] |= bit;
+                }
+                // legacyStrength keeps the order of strengths, so the best of the six is also the best by the legacy rules
+                if (HandStrength.legacyStrength(strength) > best
+                        && (HandStrength.legacyStrength(strengths[seat]) != best || bestCount > 1)) {
+                    leading[seat] |= bit;
+                }
+            }
+        }
+
+        int left = Long.bitCount(remaining);
+        SeatOuts[] outs = new SeatOuts[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            outs[seat] = new SeatOuts(seat, strengths[seat], improving[seat], leading[seat], left);
+        }
+        return outs;
+    }
+
+    /**
+     * Builds the mask of the cards that could give a hand a better category: those of the
+     * face values it holds, those of a suit it holds four of, and those of a face value
+     * that would fill a straight.
+     */
+    private static long candidates(int[] cards, int hand) {
+        int faces = 0;
+        int[] suits = new int[4];
+        for (int k = 0; k < 5; k++) {
+            faces |= 1 << (CreateCard.faceValue(cards[hand + k]) - 2);
+            suits[CreateCard.suitIndex(cards[hand + k])]++;
+        }
+
+        long mask = 0;
+        boolean straight = isStraight(faces);
+        for (int face = 0; face < 13; face++) {
+            if ((faces & 1 << face) != 0 || !straight && isStraight(faces | 1 << face)) {
+                mask |= 0xFL << (face * 4);
+            }
+        }
+        for (int suit = 0; suit < 4; suit++) {
+            if (suits[suit] >= 4) {
+                mask |= DIAMONDS << suit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return true, if the face value bits hold five in a row
+     */
+    private static boolean isStraight(int faces) {
+        boolean straight = (faces & WHEEL) == WHEEL;
+        for (int low = 0; low <= 8 && !straight; low++) {
+            straight = (faces & 0x1F << low) == 0x1F << low;
+        }
+        return straight;
+    }
+}
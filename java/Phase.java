@@ -0,0 +1,22 @@
+/**
+ * The Phase enum lists the parts of a run that Metrics times.
+ */
+public enum Phase {
+    /** Reading cards from a file (GameMode.readFile, setTestDeck, BulkMode) */
+    PARSE("Parse"),
+    /** Shuffling the deck and dealing the hands (CreateDeck.shuffleDeck, dealHands) */
+    DEAL("Shuffle/Deal"),
+    /** Finding the strength of hands (Player.convertHand, TableRanker) */
+    EVALUATE("Evaluate"),
+    /** Ordering hands by strength (CreateDeck.sortOrder, TableRanker) */
+    RANK("Rank"),
+    /** Printing or writing results */
+    OUTPUT("Output");
+
+    /** Name shown in the metrics summary and JFR events */
+    public final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.*;
+
+/**
+ * JFR event for one timed phase call that took at least Metrics.EVENT_THRESHOLD_NANOS.
+ * Shorter calls are only counted in the histograms and PhaseSummaryEvent, so leaving
+ * the event on does not flood a recording.
+ */
+@Name("poker.Phase")
+@Label("Poker Phase")
+@Category("Poker Hand Analyzer")
+@Description("A slow call of one phase of the analyzer")
+@StackTrace(false)
+public final class PhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long nanos;
+
+    @Label("Items")
+    @Description("Hands, tables or cards handled by the call")
+    public long items;
+}
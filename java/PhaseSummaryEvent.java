@@ -0,0 +1,38 @@
+import jdk.jfr.*;
+
+/**
+ * JFR event holding the running totals of one phase, emitted for every phase each
+ * period while a recording is on.
+ */
+@Name("poker.PhaseSummary")
+@Label("Poker Phase Summary")
+@Category("Poker Hand Analyzer")
+@Description("Running call count, item count and latency of one phase of the analyzer")
+@Period("1 s")
+@StackTrace(false)
+public final class PhaseSummaryEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Calls")
+    public long calls;
+
+    @Label("Items")
+    public long items;
+
+    @Label("Total Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long totalNanos;
+
+    @Label("Median")
+    @Timespan(Timespan.NANOSECONDS)
+    public long p50Nanos;
+
+    @Label("99th Percentile")
+    @Timespan(Timespan.NANOSECONDS)
+    public long p99Nanos;
+
+    @Label("Max")
+    @Timespan(Timespan.NANOSECONDS)
+    public long maxNanos;
+}
@@ -0,0 +1,240 @@
+import java.io.*;
+
+/**
+ * The ResultWriter class writes ranked tables in one of the OutputFormats.
+ * Everything is written into one large byte buffer, which goes to the output stream
+ * only when it is full and when the writer finishes, so writing a table takes no
+ * locks, no flushes and no string building.
+ *
+ * A BINARY result starts with the bytes 'P', 'K', 'R', the format version (1) and the
+ * number of seats. Each table follows in ranked order, best hand first, with one
+ * eleven byte record per hand: the seat index, the five card ids (see CreateCard),
+ * the HandCategory ordinal, and the four byte big endian HandStrength value.
+ *
+ * A ResultWriter must not be shared between threads.
+ */
+public class ResultWriter implements Flushable {
+    /** Bytes buffered before they are written to the output stream */
+    public static final int BUFFER_SIZE = 1 << 20;
+
+    /** Version number written in the header of BINARY results */
+    public static final int BINARY_VERSION = 1;
+
+    /** Most bytes one table can take in any format */
+    private static final int MAX_TABLE_BYTES = 128 + CreateDeck.MAX_SEATS * 96;
+
+    private final OutputStream out;
+    private final OutputFormat format;
+    private final int seats;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[20];
+    private final long[] winners = new long[HandCategory.values().length];
+    private int used;
+    private long tables;
+
+    /**
+     * @param out Where to write the results; it is flushed, but not closed, by finish
+     * @param format How to write the results
+     * @param seats Number of hands at each table, from CreateDeck.MIN_SEATS to CreateDeck.MAX_SEATS
+     * @throws IllegalArgumentException if the number of hands is out of range
+     */
+    public ResultWriter(OutputStream out, OutputFormat format, int seats) {
+        this.out = out;
+        this.format = format;
+        this.seats = CreateDeck.checkSeats(seats);
+
+        if (format == OutputFormat.CSV) {
+            write("table,place,seat,cards,category,strength\n");
+        } else if (format == OutputFormat.BINARY) {
+            write("PKR");
+            buffer[used++] = (byte) BINARY_VERSION;
+            buffer[used++] = (byte) seats;
+        }
+    }
+
+    /**
+     * Writes one ranked table.
+     *
+     * @param cards Array holding the card ids of the table, five per seat in seat order
+     * @param from Index of the table's first card
+     * @param order Array holding the seat indexes from best to worst hand
+     * @param strengths Array holding the hand strengths in the same order as the seats in order
+     * @param at Index of the table's best hand in order and strengths
+     * @throws IOException if the buffer cannot be written out
+     */
+    public void writeTable(int[] cards, int from, int[] order, int[] strengths, int at) throws IOException {
+        if (BUFFER_SIZE - used < MAX_TABLE_BYTES) {
+            flushBuffer();
+        }
+        tables++;
+        winners[HandStrength.category(strengths[at]).ordinal()]++;
+
+        switch (format) {
+            case TEXT:
+                write("*** Table ");
+                writeNumber(tables);
+                write("\n--- WINNING HAND ORDER ---\n");
+                for (int i = 0; i < seats; i++) {
+                    writeHand(cards, from + order[at + i] * 5, strengths[at + i]);
+                }
+                buffer[used++] = '\n';
+                break;
+            case WINNERS:
+                // Tied hands are the ones the legacy rules the table was ranked by leave equal
+                int best = HandStrength.legacyStrength(strengths[at]);
+                for (int i = 0; i < seats; i++) {
+                    if (HandStrength.legacyStrength(strengths[at + i]) != best) {
+                        continue;
+                    }
+                    write("*** Table ");
+                    writeNumber(tables);
+                    write(": ");
+                    writeHand(cards, from + order[at + i] * 5, strengths[at + i]);
+                }
+                break;
+            case CSV:
+                for (int i = 0; i < seats; i++) {
+                    writeNumber(tables);
+                    buffer[used++] = ',';
+                    writeNumber(i + 1);
+                    buffer[used++] = ',';
+                    writeNumber(order[at + i] + 1);
+                    buffer[used++] = ',';
+                    writeCards(cards, from + order[at + i] * 5);
+                    buffer[used++] = ',';
+                    write(HandStrength.category(strengths[at + i]).label);
+                    buffer[used++] = ',';
+                    writeNumber(strengths[at + i]);
+                    buffer[used++] = '\n';
+                }
+                break;
+            case BINARY:
+                for (int i = 0; i < seats; i++) {
+                    int seat = order[at + i];
+                    int strength = strengths[at + i];
+                    buffer[used++] = (byte) seat;
+                    for (int k = 0; k < 5; k++) {
+                        buffer[used++] = (byte) cards[from + seat * 5 + k];
+                    }
+                    buffer[used++] = (byte) HandStrength.category(strength).ordinal();
+                    buffer[used++] = (byte) (strength >>> 24);
+                    buffer[used++] = (byte) (strength >>> 16);
+                    buffer[used++] = (byte) (strength >>> 8);
+                    buffer[used++] = (byte) strength;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes the SUMMARY counts if that is the format, then writes out the buffer
+     * and flushes the output stream.
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        if (format == OutputFormat.SUMMARY) {
+            write("--- WINNING HANDS BY CATEGORY ---\n");
+            for (HandCategory category : HandCategory.values()) {
+                if (BUFFER_SIZE - used < MAX_TABLE_BYTES) {
+                    flushBuffer();
+                }
+                write(category.label);
+                for (int pad = category.label.length(); pad < 22; pad++) {
+                    buffer[used++] = ' ';
+                }
+                writeNumber(winners[category.ordinal()]);
+                buffer[used++] = '\n';
+            }
+            write("Tables: ");
+            writeNumber(tables);
+            buffer[used++] = '\n';
+        }
+        flush();
+    }
+
+    /**
+     * Writes out the buffer and flushes the output stream.
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, used);
+        used = 0;
+    }
+
+    private void writeHand(int[] cards, int from, int strength) {
+        writeCards(cards, from);
+        write("  - ");
+        write(HandStrength.category(strength).label);
+        buffer[used++] = '\n';
+    }
+
+    private void writeCards(int[] cards, int from) {
+        for (int k = 0; k < 5; k++) {
+            if (k > 0) {
+                buffer[used++] = ' ';
+            }
+            write(CreateCard.toString(cards[from + k]));
+        }
+    }
+
+    /**
+     * Writes an ASCII string.
+     */
+    private void write(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[used++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeNumber(long number) {
+        if (number < 0) {
+            buffer[used++] = '-';
+            number = -number;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + number % 10);
+            number /= 10;
+        } while (number != 0);
+        while (count > 0) {
+            buffer[used++] = digits[--count];
+        }
+    }
+
+    /**
+     * @return The output format
+     */
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return The number of hands at each table
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * @return The number of tables written
+     */
+    public long getTables() {
+        return tables;
+    }
+
+    /**
+     * @param category A hand category
+     * @return The number of tables whose best hand is in the category
+     */
+    public long getWinnerCount(HandCategory category) {
+        return winners[category.ordinal()];
+    }
+}
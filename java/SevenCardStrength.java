@@ -0,0 +1,263 @@
+/**
+ * The SevenCardStrength class finds the strength of the best five card hand that can
+ * be made from seven cards, as used by seven card stud and hold'em style tables.
+ *
+ * The result is exactly the highest HandStrength value of the 21 five card hands in
+ * the seven cards, including the suit tie break rules, but it is worked out directly
+ * from the counts of each face value and the face values held in each suit, without
+ * trying every five card hand.
+ *
+ * The suit rules decide which five cards are best in ways plain poker would not.
+ * Pair and high card hands compare the suit of their highest kicker before the face
+ * values, a straight compares the suit letter of its highest card before the high
+ * card, and two pair compares the suit of the higher pair before the pairs, so a lower
+ * kicker, straight or pair can give the stronger hand. Each category below picks its
+ * five cards with that in mind.
+ */
+public final class SevenCardStrength {
+    /** Number of distinct seven card hands */
+    public static final int HAND_COUNT = 133784560;
+
+    /** Bit position of the category in a strength value */
+    private static final int CATEGORY_SHIFT = 22;
+
+    /** Face values A, 2, 3, 4 and 5 as bits, with bit 0 for a two and bit 12 for an ace */
+    private static final int LOW_ACE_STRAIGHT = 0x100F;
+
+    /**
+     * The highest seven face values of a set of face value bits (bit 0 for a two, bit 12
+     * for an ace), high to low, four bits a face value, indexed by the bits
+     */
+    private static final int[] FACES = new int[1 << 13];
+
+    static {
+        for (int ranks = 1; ranks < FACES.length; ranks++) {
+            int faces = 0;
+            int left = ranks;
+            for (int k = 0; k < 7 && left != 0; k++) {
+                int face = highestFace(left);
+                faces = faces << 4 | face;
+                left &= ~(1 << (face - 2));
+            }
+            FACES[ranks] = faces;
+        }
+    }
+
+    private SevenCardStrength() {
+    }
+
+    /**
+     * Gets the strength of the best five of seven cards stored as card ids.
+     * Two pair hands take the suit of the higher pair from its first dealt card,
+     * as HandStrength.of does.
+     *
+     * @param cards Array holding the card ids in dealt order
+     * @param from Index of the first card
+     * @return The strength of the best five card hand, comparable with HandStrength values
+     * @throws IllegalArgumentException if a card appears twice
+     */
+    public static int of(int[] cards, int from) {
+        long mask = 0;
+        long bySuit = 0;
+        for (int i = from; i < from + 7; i++) {
+            int card = cards[i];
+            mask |= 1L << card;
+            bySuit |= 1L << ((card & 3) << 4 | card >>> 2);
+        }
+        if (Long.bitCount(mask) != 7) {
+            throw new IllegalArgumentException("Duplicate card in hand: " + CreateCard.join(cards, from, 7));
+        }
+        return evaluate(mask, bySuit, cards, from);
+    }
+
+    /**
+     * Gets the strength of the best five of seven cards given as a bitmask with one bit
+     * per card id. Two pair hands take the suit of the higher pair from its best card,
+     * as HandStrength.ofMask does.
+     *
+     * @param mask Bitmask holding exactly seven cards
+     * @return The strength of the best five card hand, comparable with HandStrength values
+     * @throws IllegalArgumentException if the mask does not hold seven cards
+     */
+    public static int ofMask(long mask) {
+        if (Long.bitCount(mask) != 7) {
+            throw new IllegalArgumentException("A hand needs seven different cards");
+        }
+        long bySuit = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            int card = Long.numberOfTrailingZeros(m);
+            bySuit |= 1L << ((card & 3) << 4 | card >>> 2);
+        }
+        return evaluate(mask, bySuit, null, 0);
+    }
+
+    /**
+     * Works out the strength from the card mask and the face values held in each suit,
+     * as bits 0 (a two) to 12 (an ace), sixteen bits a suit. The dealt cards are only
+     * needed for the two pair suit rule and may be null, in which case the best suit is used.
+     */
+    private static int evaluate(long mask, long bySuit, int[] cards, int from) {
+        int diamonds = (int) bySuit & 0x1FFF;
+        int clubs = (int) (bySuit >>> 16) & 0x1FFF;
+        int hearts = (int) (bySuit >>> 32) & 0x1FFF;
+        int spades = (int) (bySuit >>> 48);
+
+        int flushSuit = Integer.bitCount(diamonds) >= 5 ? 0 : Integer.bitCount(clubs) >= 5 ? 1
+                      : Integer.bitCount(hearts) >= 5 ? 2 : Integer.bitCount(spades) >= 5 ? 3 : -1;
+        int flushRanks = flushSuit < 0 ? 0 : (int) (bySuit >>> (flushSuit << 4)) & 0x1FFF;
+        if (flushSuit >= 0) {
+            int high = straightHigh(flushRanks);
+            if (high == 14) {
+                return build(HandCategory.ROYAL_STRAIGHT_FLUSH, flushSuit << 4 | high);
+            } else if (high > 0) {
+                return build(HandCategory.STRAIGHT_FLUSH, flushSuit << 4 | high);
+            }
+        }
+
+        // Face values held in any suit, and held at least two, three and four times
+        int ranks = diamonds | clubs | hearts | spades;
+        int twos = (diamonds & clubs) | (diamonds & hearts) | (diamonds & spades)
+                 | (clubs & hearts) | (clubs & spades) | (hearts & spades);
+        int threes = (diamonds & clubs & (hearts | spades)) | (hearts & spades & (diamonds | clubs));
+        int fours = diamonds & clubs & hearts & spades;
+        int sets = threes & ~fours;
+        int pairs = twos & ~threes;
+        int singles = ranks & ~twos;
+
+        if (fours != 0) {
+            int quad = highestFace(fours);
+            return build(HandCategory.FOUR_OF_A_KIND, quad << 4 | highestFace(ranks & ~(1 << (quad - 2))));
+        } else if (sets != 0 && (pairs != 0 || Integer.bitCount(sets) > 1)) {
+            // The pair is the lower of two sets or the highest pair, whichever is higher
+            int set = highestFace(sets);
+            return build(HandCategory.FULL_HOUSE, set << 4 | highestFace((sets | pairs) & ~(1 << (set - 2))));
+        } else if (flushSuit >= 0) {
+            return build(HandCategory.FLUSH, flushSuit << 20 | FACES[flushRanks] >>> ((Integer.bitCount(flushRanks) - 5) << 2));
+        }
+
+        int straight = bestStraight(mask, ranks);
+        if (straight > 0) {
+            return build(HandCategory.STRAIGHT, straight);
+        } else if (sets != 0) {
+            // Four singles: the two highest are the kickers
+            int kickers = FACES[singles] >>> 8;
+            return build(HandCategory.THREE_OF_A_KIND,
+                    highestFace(sets) << 10 | kickers << 2 | suitOfFace(mask, kickers >>> 4));
+        } else if (Integer.bitCount(pairs) > 1) {
+            return build(HandCategory.TWO_PAIR, bestTwoPair(mask, pairs, ranks, cards, from));
+        } else if (pairs != 0) {
+            // Five singles: any three of them, the first being the highest kicker
+            int faces = FACES[singles];
+            int pair = highestFace(pairs);
+            int best = 0;
+            for (int k = 0; k < 3; k++) {
+                int kickers = faces >>> ((2 - k) << 2) & 0xFFF;
+                best = Math.max(best, suitOfFace(mask, kickers >>> 8) << 16 | pair << 12 | kickers);
+            }
+            return build(HandCategory.PAIR, best);
+        }
+
+        // Seven singles: any five in a row, the first being the highest card
+        int all = FACES[singles];
+        int best = 0;
+        for (int k = 0; k < 3; k++) {
+            int faces = all >>> ((2 - k) << 2) & 0xFFFFF;
+            best = Math.max(best, suitOfFace(mask, faces >>> 16) << 20 | faces);
+        }
+        return build(HandCategory.HIGH_CARD, best);
+    }
+
+    /**
+     * Finds the best straight that is not a straight flush. The suit letter of the
+     * highest card counts before the high card, so every straight is tried.
+     *
+     * @return The straight's tie break field, or 0 if there is no straight
+     */
+    private static int bestStraight(long mask, int ranks) {
+        int best = 0;
+        int starts = ranks & ranks >>> 1 & ranks >>> 2 & ranks >>> 3 & ranks >>> 4;
+        while (starts != 0) {
+            int high = Integer.numberOfTrailingZeros(starts) + 6;
+            best = Math.max(best, letter(mask, high) << 4 | high);
+            starts &= starts - 1;
+        }
+        if ((ranks & LOW_ACE_STRAIGHT) == LOW_ACE_STRAIGHT) {
+            // The ace is the highest card dealt, so its suit letter counts
+            best = Math.max(best, letter(mask, 14) << 4 | 5);
+        }
+        return best;
+    }
+
+    /**
+     * Finds the best two pair. The suit of the higher pair counts before the pairs,
+     * so each pair that has a lower pair below it is tried as the higher pair.
+     */
+    private static int bestTwoPair(long mask, int pairs, int ranks, int[] cards, int from) {
+        int best = 0;
+        int high = highestFace(pairs);
+        pairs &= ~(1 << (high - 2));
+        while (pairs != 0) {
+            int low = highestFace(pairs);
+            int kicker = highestFace(ranks & ~(1 << (high - 2)) & ~(1 << (low - 2)));
+            int suit = cards == null ? suitOfFace(mask, high) : firstDealtSuit(cards, from, high);
+            best = Math.max(best, suit << 12 | high << 8 | low << 4 | kicker);
+            high = low;
+            pairs &= ~(1 << (low - 2));
+        }
+        return best;
+    }
+
+    /**
+     * @return The suit index of the first of the seven cards with the face value
+     */
+    private static int firstDealtSuit(int[] cards, int from, int face) {
+        for (int i = from; i < from + 7; i++) {
+            if (CreateCard.faceValue(cards[i]) == face) {
+                return CreateCard.suitIndex(cards[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The highest suit index held with the face value
+     */
+    private static int suitOfFace(long mask, int face) {
+        return 31 - Integer.numberOfLeadingZeros((int) (mask >>> ((face - 2) << 2)) & 15);
+    }
+
+    /**
+     * @return The highest suit letter held with the face value, with C &lt; D &lt; H &lt; S
+     */
+    private static int letter(long mask, int face) {
+        int suits = (int) (mask >>> ((face - 2) << 2)) & 15;
+        if ((suits & 8) != 0) {
+            return 3;
+        } else if ((suits & 4) != 0) {
+            return 2;
+        }
+        return (suits & 1) != 0 ? 1 : 0;
+    }
+
+    /**
+     * @return The highest face value in a set of face value bits
+     */
+    private static int highestFace(int ranks) {
+        return 31 - Integer.numberOfLeadingZeros(ranks) + 2;
+    }
+
+    /**
+     * @return The highest face value of the straight, 5 for the low ace straight, or 0 if there is none
+     */
+    private static int straightHigh(int ranks) {
+        int starts = ranks & ranks >>> 1 & ranks >>> 2 & ranks >>> 3 & ranks >>> 4;
+        if (starts != 0) {
+            return 31 - Integer.numberOfLeadingZeros(starts) + 6;
+        }
+        return (ranks & LOW_ACE_STRAIGHT) == LOW_ACE_STRAIGHT ? 5 : 0;
+    }
+
+    private static int build(HandCategory category, int tieBreak) {
+        return (15 - category.order) << CATEGORY_SHIFT | tieBreak;
+    }
+}
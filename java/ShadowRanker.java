@@ -0,0 +1,291 @@
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The ShadowRanker class checks the fast ranking path against LegacyRanker while
+ * tables are being ranked for real. A sample of the tables is ranked again with the
+ * legacy string code, the order the run actually wrote is compared with the legacy
+ * order, and each mismatch is recorded with the cards and where the table came from.
+ * The run passes in the time its own ranking call took for each sampled table, so the
+ * time added up for the fast path is that of the path being shadowed, cache and all,
+ * and is set against the time the legacy path took.
+ *
+ * The fast path ranks by legacyStrength in the legacy order, so every mismatch is a
+ * regression. Mismatches are sorted by the worst pair of hands the two orders disagree
+ * on (see Kind): tied hands in another order, hands the legacy order leaves against
+ * its own rules, as tieBreakers' swaps can, or hands the two rules rank differently.
+ *
+ * Which tables are sampled depends only on their number in the run, so a parallel run
+ * samples the same tables as a sequential one, and a low rate keeps the check cheap
+ * enough to leave on. All methods can be called from any number of threads.
+ */
+public class ShadowRanker {
+    /** Mismatches kept for the report; the rest are only counted */
+    public static final int MAX_RECORDED = 100;
+
+    /**
+     * The Kind enum tells how the legacy rules compare a pair of hands the two paths put in different orders.
+     */
+    public enum Kind {
+        TIE("tied hands in another order"),
+        LEGACY_ORDER("legacy order breaks its own rules"),
+        DISAGREEMENT("disagreement");
+
+        /** The name of the kind as shown in the report */
+        public final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * The Mismatch class is one table the two paths ordered differently.
+     */
+    public static final class Mismatch {
+        /** Number of the table in the run, from 0 */
+        public final long table;
+        /** Seed of the deal stream the table came from, if it came from one */
+        public final Long seed;
+        /** Index of the table in its deal stream, or -1 */
+        public final long dealIndex;
+        public final int[] cards;
+        public final int[] fastOrder;
+        public final int[] legacyOrder;
+        /** The worst pair of hands the orders disagree on */
+        public final Kind kind;
+
+        Mismatch(long table, Long seed, long dealIndex, int[] cards, int[] fastOrder, int[] legacyOrder, Kind kind) {
+            this.table = table;
+            this.seed = seed;
+            this.dealIndex = dealIndex;
+            this.cards = cards;
+            this.fastOrder = fastOrder;
+            this.legacyOrder = legacyOrder;
+            this.kind = kind;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("Table ").append(table);
+            if (seed != null) {
+                text.append(" (seed ").append(seed).append(", deal ").append(dealIndex).append(')');
+            }
+            text.append(" (").append(kind.label).append("):");
+            for (int seat = 0; seat < cards.length / 5; seat++) {
+                text.append(seat == 0 ? " " : " | ").append(CreateCard.join(cards, seat * 5, 5));
+            }
+            return text.append(" - fast order ").append(seats(fastOrder))
+                    .append(", legacy order ").append(seats(legacyOrder)).toString();
+        }
+
+        private static String seats(int[] order) {
+            StringJoiner text = new StringJoiner(" ");
+            for (int seat : order) {
+                text.add(String.valueOf(seat + 1));
+            }
+            return text.toString();
+        }
+    }
+
+    private final int seats;
+    private final long threshold;
+    private final double rate;
+    private final LegacyRanker legacy = new LegacyRanker();
+
+    private volatile Long seed;
+    private volatile long firstDeal;
+
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder[] mismatches = new LongAdder[Kind.values().length];
+    private final LongAdder fastNanos = new LongAdder();
+    private final LongAdder legacyNanos = new LongAdder();
+    private final List<Mismatch> recorded = new ArrayList<>();
+
+    /**
+     * @param seats Number of hands at each table
+     * @param rate Fraction of the tables to check, more than 0 and at most 1
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public ShadowRanker(int seats, double rate) {
+        if (!(rate > 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Sampling rate must be more than 0 and at most 1: " + rate);
+        }
+        this.seats = CreateDeck.checkSeats(seats);
+        this.rate = rate;
+        // Compared with 53 random bits of each table number, so a rate of 1 takes every table
+        threshold = rate == 1 ? 1L << 53 : (long) (rate * (1L << 53));
+        // Builds the HandStrength table now, so it is not timed as the ranking of the first sampled table
+        HandStrength.legacyStrength(0);
+        for (int i = 0; i < mismatches.length; i++) {
+            mismatches[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Says the tables that follow are dealt from a stream, so mismatches record the
+     * seed and deal index to deal them again with.
+     *
+     * @param deals The stream
+     * @param first Index in the stream of table 0 of the run
+     */
+    public void setDealStream(DealStream deals, long first) {
+        seed = deals.getSeed();
+        firstDeal = first;
+    }
+
+    /**
+     * @param table Number of a table in the run, from 0
+     * @return true, if the table is in the sample
+     */
+    public boolean isSampled(long table) {
+        // SplittableRandom's mixing function, so nearby numbers are spread out
+        long z = (table + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return ((z ^ (z >>> 31)) >>> 11) < threshold;
+    }
+
+    /**
+     * Checks one table if it is in the sample.
+     *
+     * @param table Number of the table in the run, from 0
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @param order Array holding the seat indexes from best to worst hand, as the run ranked them
+     * @param at Index of the best hand in order
+     * @param rankNanos Time the run's ranking call took to rank the table, in nanoseconds
+     * @return false, if the legacy path orders the table differently
+     */
+    public boolean check(long table, int[] cards, int from, int[] order, int at, long rankNanos) {
+        if (!isSampled(table)) {
+            return true;
+        }
+        long start = System.nanoTime();
+        int[] legacyOrder = legacy.rank(cards, from, seats);
+        long end = System.nanoTime();
+
+        sampled.increment();
+        fastNanos.add(rankNanos);
+        legacyNanos.add(end - start);
+
+        boolean same = true;
+        for (int i = 0; i < seats; i++) {
+            same &= order[at + i] == legacyOrder[i];
+        }
+        if (!same) {
+            Kind kind = classify(cards, from, order, at, legacyOrder);
+            mismatches[kind.ordinal()].increment();
+            Long streamSeed = seed;
+            Mismatch mismatch = new Mismatch(table, streamSeed, streamSeed != null ? firstDeal + table : -1,
+                    Arrays.copyOfRange(cards, from, from + seats * 5), Arrays.copyOfRange(order, at, at + seats),
+                    legacyOrder, kind);
+            synchronized (recorded) {
+                if (recorded.size() < MAX_RECORDED) {
+                    recorded.add(mismatch);
+                }
+            }
+        }
+        return same;
+    }
+
+    /**
+     * Finds the worst pair of hands the two orders put the other way round.
+     */
+    private Kind classify(int[] cards, int from, int[] order, int at, int[] legacyOrder) {
+        int[] legacyPlace = new int[seats];
+        for (int i = 0; i < seats; i++) {
+            legacyPlace[legacyOrder[i]] = i;
+        }
+        Kind worst = Kind.TIE;
+        for (int p = 0; p < seats; p++) {
+            for (int q = p + 1; q < seats; q++) {
+                int ahead = order[at + p];
+                int behind = order[at + q];
+                if (legacyPlace[behind] < legacyPlace[ahead]) {
+                    int rule = legacy.compare(cards, from, ahead, behind);
+                    Kind kind = rule == 0 ? Kind.TIE : rule < 0 ? Kind.LEGACY_ORDER : Kind.DISAGREEMENT;
+                    if (kind.compareTo(worst) > 0) {
+                        worst = kind;
+                    }
+                }
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * @return The number of tables checked
+     */
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    /**
+     * @return The number of tables the two paths ordered differently
+     */
+    public long getMismatches() {
+        long count = 0;
+        for (LongAdder kind : mismatches) {
+            count += kind.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @param kind A kind of mismatch
+     * @return The number of tables whose worst mismatch is of that kind
+     */
+    public long getMismatches(Kind kind) {
+        return mismatches[kind.ordinal()].sum();
+    }
+
+    /**
+     * @return The first MAX_RECORDED mismatches, in the order they were found
+     */
+    public List<Mismatch> getRecorded() {
+        synchronized (recorded) {
+            return new ArrayList<>(recorded);
+        }
+    }
+
+    /**
+     * @return The time the run's ranking calls took over the sample, in nanoseconds
+     */
+    public long getFastNanos() {
+        return fastNanos.sum();
+    }
+
+    /**
+     * @return The time the legacy path took over the sample, in nanoseconds
+     */
+    public long getLegacyNanos() {
+        return legacyNanos.sum();
+    }
+
+    /**
+     * @return The sample size, mismatch count, the time each path took per table, and the recorded mismatches
+     */
+    public String report() {
+        long count = getSampled();
+        StringBuilder text = new StringBuilder(String.format(
+                "*** Shadow check of %d tables (rate %s): %d mismatches", count, rate, getMismatches()));
+        for (Kind kind : Kind.values()) {
+            text.append(kind == Kind.TIE ? " (" : ", ").append(getMismatches(kind)).append(' ').append(kind.label);
+        }
+        text.append(")\n");
+        if (count > 0) {
+            double fast = (double) getFastNanos() / count;
+            double slow = (double) getLegacyNanos() / count;
+            text.append(String.format("*** Fast path %.0f ns/table, legacy path %.0f ns/table (%.1fx)%n",
+                    fast, slow, fast == 0 ? 0 : slow / fast));
+        }
+        for (Mismatch mismatch : getRecorded()) {
+            text.append(mismatch).append('\n');
+        }
+        if (getMismatches() > MAX_RECORDED) {
+            text.append("... ").append(getMismatches() - MAX_RECORDED).append(" more\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,319 @@
+import java.util.*;
+
+/**
+ * The StreetHand class follows one seat's five card stud hand as it is dealt, a card
+ * per street. Adding a card updates the face value and suit counts in constant time,
+ * so the hand made so far is known after every street without going back over the
+ * cards, and the finished hand's strength is one HandStrength lookup.
+ *
+ * It also tells which categories the hand can still finish as, given the cards other
+ * seats show. Hands with a pair or better are matched against the face value groups
+ * of each category (a set and two single cards for three of a kind, and so on);
+ * hands of five different face values try each set of face values the remaining
+ * cards could bring, at most 1287, and check them for straights and for the suits
+ * that are still live. Either way the answer is exact: a category is reachable when
+ * some way of dealing the rest of the hand from the live cards finishes as it.
+ *
+ * A StreetHand can be cleared and reused for the next deal.
+ */
+public class StreetHand {
+    /** Face value bits of the low ace straight: A, 2, 3, 4, 5 */
+    private static final int WHEEL = 1 << 12 | 0xF;
+
+    /** Face value bits of the royal straight: 10, J, Q, K, A */
+    private static final int ROYAL = 0x1F << 8;
+
+    private final int[] cards = new int[5];
+    private final int[] faceCount = new int[15];
+    private final int[] suitCount = new int[4];
+    private int count;
+    private long mask;
+
+    // Face value bits, bit face - 2, of the faces held and of those held more than once
+    private int heldFaces;
+    private int groupedFaces;
+    private int pairs, sets, quads;
+    private int strength;
+
+    /**
+     * Creates a hand with no cards.
+     */
+    public StreetHand() {
+    }
+
+    /**
+     * Deals the next card to the hand.
+     *
+     * @param card The card id
+     * @throws IllegalArgumentException if the card is not a card id, is in the hand
+     *                                  already, or the hand has five cards
+     */
+    public void add(int card) {
+        if (card < 0 || card >= CreateCard.DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid card id: " + card);
+        } else if (count == 5) {
+            throw new IllegalArgumentException("Hand already has five cards");
+        } else if ((mask & (1L << card)) != 0) {
+            throw new IllegalArgumentException("Card dealt twice: " + CreateCard.toString(card));
+        }
+        int face = CreateCard.faceValue(card);
+        switch (faceCount[face]++) {
+            case 0: heldFaces |= 1 << (face - 2); break;
+            case 1: pairs++; groupedFaces |= 1 << (face - 2); break;
+            case 2: pairs--; sets++; break;
+            default: sets--; quads++; break;
+        }
+        suitCount[CreateCard.suitIndex(card)]++;
+        mask |= 1L << card;
+        cards[count++] = card;
+        if (count == 5) {
+            strength = HandStrength.of(cards, 0);
+        }
+    }
+
+    /**
+     * Deals several cards to the hand, in order.
+     *
+     * @param cards Array holding the card ids
+     * @param from Index of the first card
+     * @param count Number of cards
+     * @throws IllegalArgumentException if a card cannot be added
+     */
+    public void add(int[] cards, int from, int count) {
+        for (int i = 0; i < count; i++) {
+            add(cards[from + i]);
+        }
+    }
+
+    /**
+     * Removes every card, ready for the next deal.
+     */
+    public void clear() {
+        Arrays.fill(faceCount, 0);
+        Arrays.fill(suitCount, 0);
+        count = 0;
+        mask = 0;
+        heldFaces = 0;
+        groupedFaces = 0;
+        pairs = 0;
+        sets = 0;
+        quads = 0;
+        strength = 0;
+    }
+
+    /**
+     * @return The number of cards dealt so far
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return The bitmask of the cards dealt so far, one bit per card id
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * @param index Position of the card in dealt order, from 0
+     * @return The card id
+     * @throws IndexOutOfBoundsException if that card has not been dealt
+     */
+    public int getCard(int index) {
+        return cards[Objects.checkIndex(index, count)];
+    }
+
+    /**
+     * @return true, if the hand has all five cards
+     */
+    public boolean isComplete() {
+        return count == 5;
+    }
+
+    /**
+     * @return The HandStrength value of the finished hand
+     * @throws IllegalStateException if the hand has fewer than five cards
+     */
+    public int getStrength() {
+        if (count < 5) {
+            throw new IllegalStateException("Hand has only " + count + " cards");
+        }
+        return strength;
+    }
+
+    /**
+     * Gets the hand made so far. Before the fifth card only face value groups count, so
+     * this is four of a kind, three of a kind, two pair, a pair or high card.
+     *
+     * @return The category of the cards dealt so far
+     */
+    public HandCategory getMadeHand() {
+        if (count == 5) {
+            return HandStrength.category(strength);
+        } else if (quads > 0) {
+            return HandCategory.FOUR_OF_A_KIND;
+        } else if (sets > 0) {
+            return HandCategory.THREE_OF_A_KIND;
+        } else if (pairs == 2) {
+            return HandCategory.TWO_PAIR;
+        }
+        return pairs == 1 ? HandCategory.PAIR : HandCategory.HIGH_CARD;
+    }
+
+    /**
+     * @return The categories the hand can finish as, dealt from the cards not in the hand
+     */
+    public EnumSet<HandCategory> getReachable() {
+        return getReachable(0);
+    }
+
+    /**
+     * Works out the categories the hand can finish as when some cards cannot be dealt
+     * to it, such as the cards the other seats show.
+     *
+     * @param dead Bitmask of the cards that cannot be dealt, one bit per card id
+     * @return The categories reachable with the live cards
+     */
+    public EnumSet<HandCategory> getReachable(long dead) {
+        EnumSet<HandCategory> reachable = EnumSet.noneOf(HandCategory.class);
+        if (count == 5) {
+            reachable.add(HandStrength.category(strength));
+            return reachable;
+        }
+
+        long blocked = mask | dead;
+        int[] live = new int[15];
+        int[] liveSuitFaces = new int[4];
+        int liveFaces = 0;
+        for (int face = 2; face <= 14; face++) {
+            int free = ~(int) (blocked >>> CreateCard.of(face, 0)) & 15;
+            live[face] = Integer.bitCount(free);
+            if (free != 0) {
+                liveFaces |= 1 << (face - 2);
+            }
+            for (int suit = 0; suit < 4; suit++) {
+                liveSuitFaces[suit] |= (free >>> suit & 1) << (face - 2);
+            }
+        }
+
+        addIf(reachable, HandCategory.FOUR_OF_A_KIND, canGroup(4, 0, 1, live, liveFaces));
+        addIf(reachable, HandCategory.FULL_HOUSE, canGroup(3, 2, 0, live, liveFaces));
+        addIf(reachable, HandCategory.THREE_OF_A_KIND, canGroup(3, 0, 2, live, liveFaces));
+        addIf(reachable, HandCategory.TWO_PAIR, canGroup(2, 2, 1, live, liveFaces));
+        addIf(reachable, HandCategory.PAIR, canGroup(2, 0, 3, live, liveFaces));
+        if (groupedFaces == 0) {
+            addUngrouped(reachable, liveFaces & ~heldFaces, liveSuitFaces);
+        }
+        return reachable;
+    }
+
+    /**
+     * @param category A hand category
+     * @return true, if the hand can finish as the category, dealt from the cards not in the hand
+     */
+    public boolean canMake(HandCategory category) {
+        return getReachable().contains(category);
+    }
+
+    private static void addIf(EnumSet<HandCategory> reachable, HandCategory category, boolean possible) {
+        if (possible) {
+            reachable.add(category);
+        }
+    }
+
+    /**
+     * Checks whether the hand can finish as a group of big cards of one face value,
+     * another group of second cards of another face value, and singles of different face values.
+     */
+    private boolean canGroup(int big, int second, int singles, int[] live, int liveFaces) {
+        for (int a = 2; a <= 14; a++) {
+            if (faceCount[a] > big || faceCount[a] + live[a] < big) {
+                continue;
+            }
+            for (int b = second == 0 ? 0 : 2; b <= (second == 0 ? 0 : 14); b++) {
+                if (second > 0 && (b == a || faceCount[b] > second || faceCount[b] + live[b] < second)) {
+                    continue;
+                }
+                int groups = 1 << (a - 2) | (second > 0 ? 1 << (b - 2) : 0);
+                int others = heldFaces & ~groups;
+                if ((others & groupedFaces) != 0 || Integer.bitCount(others) > singles) {
+                    continue;
+                }
+                int open = singles - Integer.bitCount(others);
+                if (Integer.bitCount(liveFaces & ~heldFaces & ~groups) >= open) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the categories of five different face values the hand can finish as: every
+     * set of face values the rest of the hand could bring is checked for a straight,
+     * and for whether the live suits let it be a flush and let it not be one.
+     */
+    private void addUngrouped(EnumSet<HandCategory> reachable, int candidates, int[] liveSuitFaces) {
+        int open = 5 - count;
+        if (Integer.bitCount(candidates) < open) {
+            return;
+        }
+        int firstSuit = count > 0 ? CreateCard.suitIndex(cards[0]) : -1;
+        boolean suited = count == 0 || suitCount[firstSuit] == count;
+
+        // Face values that can only be dealt in one suit, for each suit
+        int[] onlySuit = new int[4];
+        for (int suit = 0; suit < 4; suit++) {
+            onlySuit[suit] = liveSuitFaces[suit];
+            for (int other = 0; other < 4; other++) {
+                if (other != suit) {
+                    onlySuit[suit] &= ~liveSuitFaces[other];
+                }
+            }
+        }
+
+        // Each set of open face values out of the candidates, lowest first (Gosper's hack)
+        for (int pick = (1 << open) - 1; pick < 1 << 13; ) {
+            if ((pick & ~candidates) == 0) {
+                int faces = heldFaces | pick;
+                boolean straight = faces == WHEEL || faces == 0x1F << Integer.numberOfTrailingZeros(faces);
+
+                boolean flush = false;
+                for (int suit = 0; suit < 4 && !flush; suit++) {
+                    flush = (count == 0 || suit == firstSuit && suited) && (pick & ~liveSuitFaces[suit]) == 0;
+                }
+                boolean plain;
+                if (!suited) {
+                    plain = true;
+                } else if (count > 0) {
+                    plain = (pick & ~onlySuit[firstSuit]) != 0;
+                } else {
+                    plain = true;
+                    for (int suit = 0; suit < 4 && plain; suit++) {
+                        plain = (pick & ~onlySuit[suit]) != 0;
+                    }
+                }
+
+                if (straight) {
+                    addIf(reachable, faces == ROYAL ? HandCategory.ROYAL_STRAIGHT_FLUSH : HandCategory.STRAIGHT_FLUSH, flush);
+                    addIf(reachable, HandCategory.STRAIGHT, plain);
+                } else {
+                    addIf(reachable, HandCategory.FLUSH, flush);
+                    addIf(reachable, HandCategory.HIGH_CARD, plain);
+                }
+            }
+            int low = pick & -pick;
+            int ripple = pick + low;
+            pick = ripple | ((pick ^ ripple) >>> 2) / low;
+        }
+    }
+
+    /**
+     * Formats the hand as its cards and the hand made so far, e.g. "AS AH 7D - Pair".
+     */
+    @Override
+    public String toString() {
+        return CreateCard.join(cards, 0, count) + " - " + getMadeHand().label;
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * The SuitIsomorphism class groups hands that are the same apart from the names of
+ * their suits. Renaming suits never changes a hand's category or face values, so
+ * work that only needs those can be done once per group and weighted by the group's
+ * size. The suit tie break rules do depend on the names (D &lt; C &lt; H &lt; S), so the
+ * renaming is kept and HandStrength.permuteSuits puts the real suits back.
+ *
+ * A suit permutation is packed into an int, two bits per suit: bits 2s and 2s + 1
+ * hold the suit that suit s is renamed to.
+ *
+ * The canonical form of a hand names its suits in order of their face values: the
+ * suit holding the highest cards (compared from the ace down) becomes diamonds, the
+ * next clubs, and so on. For several groups of cards, such as each seat's hand and
+ * the dead cards, the first group is compared first, then the next.
+ */
+public final class SuitIsomorphism {
+    /** The permutation that renames no suit */
+    public static final int IDENTITY = 0b11100100;
+
+    /** Bit 0 of every face value in a card mask, i.e. the diamonds */
+    private static final long DIAMONDS = 0x1111111111111L;
+
+    /** n! for n from 0 to 4 */
+    private static final int[] FACTORIAL = {1, 1, 2, 6, 24};
+
+    /** CLASS_WAYS[bounds][chosen] is the number of card sets that one canonical choice stands for */
+    private static final int[][] CLASS_WAYS = new int[16][16];
+
+    /** CLASS_BOUNDS[bounds][chosen] is the suit classes after a choice */
+    private static final int[][] CLASS_BOUNDS = new int[16][16];
+
+    static {
+        // Suits that have held the same cards so far form classes of consecutive suits.
+        // bounds has bit i set when a class starts at suit i. A choice of suits for the
+        // next face value is canonical when it takes the first suits of each class.
+        for (int bounds = 1; bounds < 16; bounds += 2) {
+            for (int chosen = 0; chosen < 16; chosen++) {
+                int ways = 1;
+                int newBounds = bounds;
+                for (int start = 0; start < 4 && ways > 0; ) {
+                    int end = start + 1;
+                    while (end < 4 && (bounds & (1 << end)) == 0) {
+                        end++;
+                    }
+                    int size = end - start;
+                    int taken = Integer.bitCount(chosen >>> start & ((1 << size) - 1));
+                    if ((chosen >>> start & ((1 << size) - 1)) != (1 << taken) - 1) {
+                        ways = 0;
+                    } else {
+                        ways *= choose(size, taken);
+                        if (taken > 0 && taken < size) {
+                            newBounds |= 1 << (start + taken);
+                        }
+                    }
+                    start = end;
+                }
+                CLASS_WAYS[bounds][chosen] = ways;
+                CLASS_BOUNDS[bounds][chosen] = newBounds;
+            }
+        }
+    }
+
+    /**
+     * Receives one canonical hand and the number of hands it stands for.
+     */
+    @FunctionalInterface
+    public interface ClassConsumer {
+        void accept(long mask, long weight);
+    }
+
+    private SuitIsomorphism() {
+    }
+
+    /**
+     * @param card A card id
+     * @param permutation A suit permutation
+     * @return The card with its suit renamed
+     */
+    public static int permuteCard(int card, int permutation) {
+        return (card & ~3) | (permutation >>> ((card & 3) << 1) & 3);
+    }
+
+    /**
+     * @param mask A card mask, one bit per card id
+     * @param permutation A suit permutation
+     * @return The mask with every suit renamed
+     */
+    public static long permuteMask(long mask, int permutation) {
+        long result = 0;
+        for (int suit = 0; suit < 4; suit++) {
+            result |= (mask >>> suit & DIAMONDS) << (permutation >>> (suit << 1) & 3);
+        }
+        return result;
+    }
+
+    /**
+     * @param permutation A suit permutation
+     * @return The permutation that undoes it
+     */
+    public static int inverse(int permutation) {
+        int inverse = 0;
+        for (int suit = 0; suit < 4; suit++) {
+            inverse |= suit << ((permutation >>> (suit << 1) & 3) << 1);
+        }
+        return inverse;
+    }
+
+    /**
+     * Finds the canonical form of one or more groups of cards.
+     *
+     * @param groups Card masks, such as each seat's hand followed by the dead cards
+     * @return The canonical groups, the renaming that gives them, and how many renamings give different cards
+     */
+    public static CanonicalForm canonicalize(long... groups) {
+        // Order the suits by the cards they hold, group by group, highest first
+        int[] suits = {0, 1, 2, 3};
+        for (int i = 1; i < 4; i++) {
+            int suit = suits[i];
+            int j = i;
+            while (j > 0 && compareSuits(groups, suit, suits[j - 1]) > 0) {
+                suits[j] = suits[j - 1];
+                j--;
+            }
+            suits[j] = suit;
+        }
+
+        int permutation = 0;
+        long weight = 24;
+        int run = 1;
+        for (int i = 0; i < 4; i++) {
+            permutation |= i << (suits[i] << 1);
+            if (i > 0 && compareSuits(groups, suits[i], suits[i - 1]) == 0) {
+                run++;
+            } else {
+                weight /= FACTORIAL[run];
+                run = 1;
+            }
+        }
+        weight /= FACTORIAL[run];
+
+        long[] canonical = new long[groups.length];
+        for (int g = 0; g < groups.length; g++) {
+            canonical[g] = permuteMask(groups[g], permutation);
+        }
+        return new CanonicalForm(canonical, permutation, weight);
+    }
+
+    /**
+     * @param mask A card mask
+     * @return The mask of the canonical form of the cards
+     */
+    public static long canonicalMask(long mask) {
+        return canonicalize(mask).getGroup(0);
+    }
+
+    /**
+     * Compares the cards two suits hold in each group, from the first group on.
+     */
+    private static int compareSuits(long[] groups, int a, int b) {
+        for (long group : groups) {
+            int order = Long.compare(group >>> a & DIAMONDS, group >>> b & DIAMONDS);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Visits the canonical form of every hand of a given size once, with the number
+     * of hands it stands for.
+     *
+     * @param cards Cards in a hand, from 1 to 52
+     * @param consumer Receives each canonical hand and its weight
+     */
+    public static void forEachClass(int cards, ClassConsumer consumer) {
+        visit(12, cards, 0, 1, 1, consumer);
+    }
+
+    /**
+     * Visits the canonical form of every hand of a given size whose highest face value
+     * is held a given number of times. Splitting the work this way lets each part run
+     * on its own thread.
+     *
+     * @param cards Cards in a hand, from 1 to 52
+     * @param topFace Highest face value in the hand, 2 to 14
+     * @param topCount Number of cards of that face value, 1 to 4
+     * @param consumer Receives each canonical hand and its weight
+     */
+    public static void forEachClass(int cards, int topFace, int topCount, ClassConsumer consumer) {
+        if (topCount > cards) {
+            return;
+        }
+        int rank = topFace - 2;
+        int chosen = (1 << topCount) - 1;
+        visit(rank - 1, cards - topCount, (long) chosen << (rank << 2), CLASS_WAYS[1][chosen],
+                CLASS_BOUNDS[1][chosen], consumer);
+    }
+
+    /**
+     * Places the remaining cards on the face values from rank down, choosing only
+     * canonical sets of suits at each face value.
+     */
+    private static void visit(int rank, int left, long mask, long weight, int bounds, ClassConsumer consumer) {
+        if (left == 0) {
+            consumer.accept(mask, weight);
+            return;
+        }
+        if ((rank + 1) << 2 < left) {
+            return;
+        }
+        for (int chosen = 0; chosen < 16; chosen++) {
+            int ways = CLASS_WAYS[bounds][chosen];
+            if (ways == 0 || Integer.bitCount(chosen) > left) {
+                continue;
+            }
+            visit(rank - 1, left - Integer.bitCount(chosen), mask | (long) chosen << (rank << 2),
+                    weight * ways, CLASS_BOUNDS[bounds][chosen], consumer);
+        }
+    }
+
+    private static int choose(int n, int k) {
+        int result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The TableRanker class ranks the hands of one table, best hand first, in the order
+ * CreateDeck.sortOrder gives: rank keys of the strengths the legacy tiebreaker rules
+ * compare, put in order by HandStrength.sortLegacy. It keeps its working arrays
+ * between calls, so ranking a table allocates nothing. A TableRanker must not be
+ * shared between threads.
+ */
+public class TableRanker {
+    private final int seats;
+    private final EvaluationCache cache;
+    private final int[] strengths;
+    private final long[] keys;
+    private final int[] order;
+
+    /**
+     * @param seats Number of hands at the table
+     */
+    public TableRanker(int seats) {
+        this(seats, null);
+    }
+
+    /**
+     * @param seats Number of hands at the table
+     * @param cache Cache of strengths by card mask, as made by EvaluationCache.ofHandStrengths,
+     *              or null to evaluate every hand
+     */
+    public TableRanker(int seats, EvaluationCache cache) {
+        this.seats = seats;
+        this.cache = cache;
+        strengths = new int[seats];
+        keys = new long[seats];
+        order = new int[seats];
+    }
+
+    /**
+     * Ranks the hands of a table.
+     *
+     * @param cards Array holding the card ids, five per hand
+     * @param from Index of the first card of the table
+     * @return The seat indexes from best to worst hand; the array is reused by the next call
+     */
+    public int[] rank(int[] cards, int from) {
+        long start = Metrics.start();
+        for (int seat = 0; seat < seats; seat++) {
+            int hand = from + seat * 5;
+            strengths[seat] = cache == null ? HandStrength.of(cards, hand)
+                    : HandStrength.withDealtOrder(cache.get(HandStrength.mask(cards, hand)), cards, hand);
+            keys[seat] = HandStrength.rankKey(HandStrength.legacyStrength(strengths[seat]), seat);
+        }
+        start = Metrics.stop(Phase.EVALUATE, start, seats);
+
+        HandStrength.sortLegacy(keys, seats);
+        for (int i = 0; i < seats; i++) {
+            order[i] = HandStrength.rankKeyId(keys[i]);
+        }
+        Metrics.stop(Phase.RANK, start, seats);
+        return order;
+    }
+
+    /**
+     * @param seat The seat index
+     * @return The strength of the seat's hand from the last call to rank
+     */
+    public int getStrength(int seat) {
+        return strengths[seat];
+    }
+
+    /**
+     * @return The number of hands at the table
+     */
+    public int getSeats() {
+        return seats;
+    }
+}
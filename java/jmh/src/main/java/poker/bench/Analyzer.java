@@ -0,0 +1,111 @@
+package poker.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.random.RandomGenerator;
+
+/**
+ * Method handles into the analyzer classes.
+ *
+ * The analyzer lives in the unnamed package, which Java code in a named package
+ * cannot refer to, and JMH refuses benchmarks in the unnamed package. The handles
+ * are static finals, so the JIT inlines them like direct calls.
+ */
+final class Analyzer {
+    static final MethodHandle NEW_DECK;
+    static final MethodHandle NEW_TEST_DECK;
+    static final MethodHandle SHUFFLE_DECK;
+    static final MethodHandle SHUFFLE_TOP;
+    static final MethodHandle SET_RANDOM;
+    static final MethodHandle DEAL_HANDS;
+    static final MethodHandle RANK_HANDS;
+    static final MethodHandle PRINT_RESULT;
+    static final MethodHandle DELT_CARDS;
+    static final MethodHandle NEW_PLAYER;
+    static final MethodHandle CONVERT_HAND;
+    static final MethodHandle NEW_GAME_MODE;
+    static final MethodHandle READ_FILE;
+    static final MethodHandle FIVE_CARD_STRENGTH;
+    static final MethodHandle SEVEN_CARD_STRENGTH;
+    static final MethodHandle NEW_BATCH_EVALUATOR;
+    static final MethodHandle NEW_SCALAR_BATCH_EVALUATOR;
+    static final MethodHandle BATCH_EVALUATE;
+    static final MethodHandle BATCH_EVALUATOR_NAME;
+    static final MethodHandle BULK_RANK;
+    static final MethodHandle RANK_KEY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> deck = Class.forName("CreateDeck");
+            Class<?> player = Class.forName("Player");
+            Class<?> mode = Class.forName("GameMode");
+            Class<?> batch = Class.forName("BatchEvaluator");
+
+            NEW_DECK = erase(lookup.findConstructor(deck, MethodType.methodType(void.class)));
+            NEW_TEST_DECK = erase(lookup.findConstructor(deck, MethodType.methodType(void.class, boolean.class)));
+            SHUFFLE_DECK = erase(lookup.findVirtual(deck, "shuffleDeck", MethodType.methodType(void.class)));
+            SHUFFLE_TOP = erase(lookup.findVirtual(deck, "shuffleDeck", MethodType.methodType(void.class, int.class)));
+            SET_RANDOM = erase(lookup.findVirtual(deck, "setRandom", MethodType.methodType(void.class, RandomGenerator.class)));
+            DEAL_HANDS = erase(lookup.findVirtual(deck, "dealHands", MethodType.methodType(void.class)));
+            RANK_HANDS = erase(lookup.findVirtual(deck, "rankHands", MethodType.methodType(void.class, int[].class)));
+            PRINT_RESULT = erase(lookup.findVirtual(deck, "printResult", MethodType.methodType(void.class)));
+            DELT_CARDS = erase(lookup.findGetter(deck, "deltCards", int[].class));
+            NEW_PLAYER = erase(lookup.findConstructor(player, MethodType.methodType(void.class)));
+            CONVERT_HAND = erase(lookup.findVirtual(player, "convertHand", MethodType.methodType(void.class, String.class)));
+            NEW_GAME_MODE = erase(lookup.findConstructor(mode, MethodType.methodType(void.class)));
+            READ_FILE = erase(lookup.findVirtual(mode, "readFile", MethodType.methodType(void.class, String.class)));
+            FIVE_CARD_STRENGTH = lookup.findStatic(Class.forName("HandStrength"), "of",
+                    MethodType.methodType(int.class, int[].class, int.class));
+            SEVEN_CARD_STRENGTH = lookup.findStatic(Class.forName("SevenCardStrength"), "of",
+                    MethodType.methodType(int.class, int[].class, int.class));
+            NEW_BATCH_EVALUATOR = erase(lookup.findStatic(batch, "create", MethodType.methodType(batch)));
+            NEW_SCALAR_BATCH_EVALUATOR = erase(lookup.findStatic(batch, "scalar", MethodType.methodType(batch)));
+            BATCH_EVALUATE = erase(lookup.findVirtual(batch, "evaluate",
+                    MethodType.methodType(void.class, int[].class, int.class, int[].class, int.class, int.class)));
+            BATCH_EVALUATOR_NAME = erase(lookup.findVirtual(batch, "getName", MethodType.methodType(String.class)));
+            BULK_RANK = erase(lookup.findStatic(Class.forName("BulkRanker"), "rank", MethodType.methodType(
+                    Class.forName("BulkRanker$Ranking"), int[].class, int.class, int.class)));
+            RANK_KEY = lookup.findStatic(Class.forName("HandStrength"), "rankKey",
+                    MethodType.methodType(long.class, int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Analyzer() {
+    }
+
+    /**
+     * Replaces the analyzer classes in a handle's type with Object.
+     */
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isAnalyzerClass(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isAnalyzerClass(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isAnalyzerClass(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+
+    /**
+     * Sends System.out to nowhere so printing benchmarks measure the formatting, not the terminal.
+     * @return The previous System.out, to restore afterwards
+     */
+    static PrintStream discardOutput() {
+        PrintStream previous = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return previous;
+    }
+}
@@ -0,0 +1,56 @@
+package poker.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of evaluating a batch of five card hands with BatchEvaluator, one hand at
+ * a time through HandStrength's table and many at once with the Vector API.
+ * Both evaluators get the same random hands, and the setup checks they agree.
+ * The scores are per hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BatchBenchmark {
+    private static final int HAND_COUNT = 1 << 12;
+
+    private int[] cards;
+    private final int[] strengths = new int[HAND_COUNT];
+    private Object scalar;
+    private Object vector;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        cards = Handsets.randomCardIds(HAND_COUNT, 5, 42);
+        scalar = Analyzer.NEW_SCALAR_BATCH_EVALUATOR.invokeExact();
+        vector = Analyzer.NEW_BATCH_EVALUATOR.invokeExact();
+        System.out.println("Batch evaluator: " + (String) Analyzer.BATCH_EVALUATOR_NAME.invokeExact(vector));
+
+        int[] expected = new int[HAND_COUNT];
+        Analyzer.BATCH_EVALUATE.invokeExact(scalar, cards, 0, expected, 0, HAND_COUNT);
+        Analyzer.BATCH_EVALUATE.invokeExact(vector, cards, 0, strengths, 0, HAND_COUNT);
+        if (!Arrays.equals(expected, strengths)) {
+            throw new IllegalStateException("The batch evaluators disagree");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HAND_COUNT)
+    public int[] scalarBatch() throws Throwable {
+        Analyzer.BATCH_EVALUATE.invokeExact(scalar, cards, 0, strengths, 0, HAND_COUNT);
+        return strengths;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HAND_COUNT)
+    public int[] vectorBatch() throws Throwable {
+        Analyzer.BATCH_EVALUATE.invokeExact(vector, cards, 0, strengths, 0, HAND_COUNT);
+        return strengths;
+    }
+}
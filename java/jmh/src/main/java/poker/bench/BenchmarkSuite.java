@@ -0,0 +1,36 @@
+package poker.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark twice, on one thread and on one thread per core,
+ * with the GC profiler reporting the allocation rate.
+ *
+ * Extra arguments are passed to JMH, e.g. a benchmark name pattern or "-rf json".
+ */
+public class BenchmarkSuite {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads : new int[] {1, cores}) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class);
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include("poker\\.bench\\..*Benchmark");
+            }
+            new Runner(options.build()).run();
+            if (cores == 1) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package poker.bench;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGeneratorFactory;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the deck pipeline: shuffle, deal, rank and print.
+ * Each benchmark thread works on its own deck.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+    /** Random source used by the shuffle */
+    @Param({"L32X64MixRandom", "Xoshiro256PlusPlus", "SplittableRandom"})
+    public String random;
+
+    private Object deck;
+    private int[] dealt;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        out = Analyzer.discardOutput();
+        deck = (Object) Analyzer.NEW_TEST_DECK.invokeExact(true);
+        Analyzer.SET_RANDOM.invokeExact(deck, RandomGeneratorFactory.of(random).create(42));
+        Analyzer.SHUFFLE_DECK.invokeExact(deck);
+        Analyzer.DEAL_HANDS.invokeExact(deck);
+        dealt = ((int[]) Analyzer.DELT_CARDS.invokeExact(deck)).clone();
+        Analyzer.RANK_HANDS.invokeExact(deck, dealt);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public Object shuffleDeck() throws Throwable {
+        Analyzer.SHUFFLE_DECK.invokeExact(deck);
+        return deck;
+    }
+
+    @Benchmark
+    public Object shuffleDealtCards() throws Throwable {
+        Analyzer.SHUFFLE_TOP.invokeExact(deck, 30);
+        return deck;
+    }
+
+    @Benchmark
+    public Object shuffleAndDeal() throws Throwable {
+        Analyzer.SHUFFLE_TOP.invokeExact(deck, 30);
+        Analyzer.DEAL_HANDS.invokeExact(deck);
+        return deck;
+    }
+
+    @Benchmark
+    public Object dealHands() throws Throwable {
+        Analyzer.DEAL_HANDS.invokeExact(deck);
+        return deck;
+    }
+
+    @Benchmark
+    public Object rankHands() throws Throwable {
+        Analyzer.RANK_HANDS.invokeExact(deck, dealt);
+        return deck;
+    }
+
+    @Benchmark
+    public Object printResult() throws Throwable {
+        Analyzer.PRINT_RESULT.invokeExact(deck);
+        return deck;
+    }
+
+    @Benchmark
+    public Object fullTable() throws Throwable {
+        Analyzer.SHUFFLE_DECK.invokeExact(deck);
+        Analyzer.DEAL_HANDS.invokeExact(deck);
+        Analyzer.RANK_HANDS.invokeExact(deck, (int[]) Analyzer.DELT_CARDS.invokeExact(deck));
+        Analyzer.PRINT_RESULT.invokeExact(deck);
+        return deck;
+    }
+}
@@ -0,0 +1,61 @@
+package poker.bench;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of reading a handset file with GameMode.readFile.
+ * The handset files are generated into a temporary directory for the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameModeBenchmark {
+    private static final int FILE_COUNT = 64;
+
+    private Path directory;
+    private String[] files;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        out = Analyzer.discardOutput();
+        directory = Files.createTempDirectory("handsets");
+        files = new String[FILE_COUNT];
+        for (int i = 0; i < FILE_COUNT; i++) {
+            Path file = directory.resolve("handset" + i + ".txt");
+            Files.writeString(file, Handsets.handsetFile(i));
+            files[i] = file.toString();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        for (String file : files) {
+            Files.deleteIfExists(Path.of(file));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /** Per thread position in the file list */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Object readFile(Cursor cursor) throws Throwable {
+        Object mode = (Object) Analyzer.NEW_GAME_MODE.invokeExact();
+        Analyzer.READ_FILE.invokeExact(mode, files[cursor.next++ % FILE_COUNT]);
+        return mode;
+    }
+}
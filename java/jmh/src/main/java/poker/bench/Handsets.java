@@ -0,0 +1,78 @@
+package poker.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates hands and handset files for the benchmarks from a fixed seed,
+ * so every run measures the same input.
+ */
+final class Handsets {
+    private static final String[] FACES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+    private static final String[] SUITS = {"D", "C", "H", "S"};
+
+    private Handsets() {
+    }
+
+    /**
+     * @param count Number of hands
+     * @param seed Random seed
+     * @return Hands as space separated cards, each dealt from a fresh shuffled deck
+     */
+    static String[] randomHands(int count, long seed) {
+        Random random = new Random(seed);
+        String[] hands = new String[count];
+        for (int i = 0; i < count; i++) {
+            hands[i] = String.join(" ", shuffledDeck(random).subList(0, 5));
+        }
+        return hands;
+    }
+
+    /**
+     * @param count Number of hands
+     * @param cardsPerHand Cards in each hand
+     * @param seed Random seed
+     * @return Card ids (0 to 51), cardsPerHand per hand, each hand dealt from a fresh shuffled deck
+     */
+    static int[] randomCardIds(int count, int cardsPerHand, long seed) {
+        Random random = new Random(seed);
+        List<Integer> deck = new ArrayList<>();
+        for (int card = 0; card < 52; card++) {
+            deck.add(card);
+        }
+        int[] cards = new int[count * cardsPerHand];
+        for (int i = 0; i < count; i++) {
+            Collections.shuffle(deck, random);
+            for (int k = 0; k < cardsPerHand; k++) {
+                cards[i * cardsPerHand + k] = deck.get(k);
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * @param seed Random seed
+     * @return The contents of a handset file: six lines of five comma separated cards
+     */
+    static String handsetFile(long seed) {
+        List<String> deck = shuffledDeck(new Random(seed));
+        StringBuilder file = new StringBuilder();
+        for (int hand = 0; hand < 6; hand++) {
+            file.append(String.join(", ", deck.subList(hand * 5, hand * 5 + 5))).append('\n');
+        }
+        return file.toString();
+    }
+
+    private static List<String> shuffledDeck(Random random) {
+        List<String> deck = new ArrayList<>();
+        for (String suit : SUITS) {
+            for (String face : FACES) {
+                deck.add(face + suit);
+            }
+        }
+        Collections.shuffle(deck, random);
+        return deck;
+    }
+}
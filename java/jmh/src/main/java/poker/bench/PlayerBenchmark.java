@@ -0,0 +1,34 @@
+package poker.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of evaluating one hand with Player.convertHand.
+ * The hands are dealt up front and cycled through, so every call sees a different hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    private static final int HAND_COUNT = 1 << 12;
+
+    private String[] hands;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hands = Handsets.randomHands(HAND_COUNT, 42);
+    }
+
+    @Benchmark
+    public Object convertHand() throws Throwable {
+        Object player = (Object) Analyzer.NEW_PLAYER.invokeExact();
+        Analyzer.CONVERT_HAND.invokeExact(player, hands[next++ & (HAND_COUNT - 1)]);
+        return player;
+    }
+}
@@ -0,0 +1,47 @@
+package poker.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of ranking ten million hands at once, with BulkRanker's radix sort and by
+ * building rank keys and sorting them with Arrays.parallelSort.
+ * The strengths are worked out up front; the scores are per ranking of all the hands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankBenchmark {
+    private static final int HAND_COUNT = 10_000_000;
+
+    private int[] strengths;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        int[] cards = Handsets.randomCardIds(HAND_COUNT, 5, 42);
+        strengths = new int[HAND_COUNT];
+        for (int h = 0; h < HAND_COUNT; h++) {
+            strengths[h] = (int) Analyzer.FIVE_CARD_STRENGTH.invokeExact(cards, h * 5);
+        }
+    }
+
+    @Benchmark
+    public Object bulkRanker() throws Throwable {
+        return (Object) Analyzer.BULK_RANK.invokeExact(strengths, 0, HAND_COUNT);
+    }
+
+    @Benchmark
+    public long[] parallelSortRankKeys() throws Throwable {
+        long[] keys = new long[HAND_COUNT];
+        for (int h = 0; h < HAND_COUNT; h++) {
+            keys[h] = (long) Analyzer.RANK_KEY.invokeExact(strengths[h], h);
+        }
+        Arrays.parallelSort(keys);
+        return keys;
+    }
+}
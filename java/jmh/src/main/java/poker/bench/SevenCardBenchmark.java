@@ -0,0 +1,52 @@
+package poker.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of finding the best five of seven cards, with SevenCardStrength and by
+ * trying all 21 five card hands with HandStrength.
+ * The hands are dealt up front and cycled through, so every call sees a different hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SevenCardBenchmark {
+    private static final int HAND_COUNT = 1 << 12;
+
+    private int[] cards;
+    private final int[] five = new int[5];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cards = Handsets.randomCardIds(HAND_COUNT, 7, 42);
+    }
+
+    @Benchmark
+    public int sevenCardStrength() throws Throwable {
+        return (int) Analyzer.SEVEN_CARD_STRENGTH.invokeExact(cards, (next++ & (HAND_COUNT - 1)) * 7);
+    }
+
+    @Benchmark
+    public int bestOfTwentyOne() throws Throwable {
+        int from = (next++ & (HAND_COUNT - 1)) * 7;
+        int best = Integer.MIN_VALUE;
+        for (int skip1 = 0; skip1 < 7; skip1++) {
+            for (int skip2 = skip1 + 1; skip2 < 7; skip2++) {
+                int n = 0;
+                for (int i = 0; i < 7; i++) {
+                    if (i != skip1 && i != skip2) {
+                        five[n++] = cards[from + i];
+                    }
+                }
+                best = Math.max(best, (int) Analyzer.FIVE_CARD_STRENGTH.invokeExact(five, 0));
+            }
+        }
+        return best;
+    }
+}
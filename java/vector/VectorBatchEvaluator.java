@@ -0,0 +1,193 @@
+import jdk.incubator.vector.*;
+
+/**
+ * The VectorBatchEvaluator class evaluates a batch of five card hands with the Java
+ * Vector API, one hand per vector lane, so a 256 bit vector works on eight hands at a
+ * time. It works out each strength from the cards alone, as HandStrength.compute does,
+ * rather than looking it up in HandStrength's table:
+ * <ul>
+ * <li>Each card's face value count (its share of the face value histogram) is one plus
+ *     the number of other cards with the same face value.</li>
+ * <li>A sorting network orders the cards by count, then face value, then dealt order,
+ *     so groups come first and each tie break field is a fixed card of the order.</li>
+ * <li>Flushes compare the suits, straights the spread of the face values, and each
+ *     category's strength is blended into the lanes that have it.</li>
+ * </ul>
+ *
+ * This class needs the jdk.incubator.vector module, so it lives apart from the other
+ * sources and is compiled and run with --add-modules jdk.incubator.vector. Use
+ * BatchEvaluator.create(), which falls back to the scalar evaluator without it.
+ */
+public class VectorBatchEvaluator extends BatchEvaluator {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /** Offset of each lane's hand from the first hand, five cards a hand */
+    private static final int[] HAND_OFFSETS = new int[SPECIES.length()];
+
+    private static final int ROYAL_STRAIGHT_FLUSH = value(HandCategory.ROYAL_STRAIGHT_FLUSH);
+    private static final int STRAIGHT_FLUSH = value(HandCategory.STRAIGHT_FLUSH);
+    private static final int FOUR_OF_A_KIND = value(HandCategory.FOUR_OF_A_KIND);
+    private static final int FULL_HOUSE = value(HandCategory.FULL_HOUSE);
+    private static final int FLUSH = value(HandCategory.FLUSH);
+    private static final int STRAIGHT = value(HandCategory.STRAIGHT);
+    private static final int THREE_OF_A_KIND = value(HandCategory.THREE_OF_A_KIND);
+    private static final int TWO_PAIR = value(HandCategory.TWO_PAIR);
+    private static final int PAIR = value(HandCategory.PAIR);
+    private static final int HIGH_CARD = value(HandCategory.HIGH_CARD);
+
+    static {
+        for (int lane = 0; lane < HAND_OFFSETS.length; lane++) {
+            HAND_OFFSETS[lane] = lane * 5;
+        }
+    }
+
+    /**
+     * Creates the evaluator. BatchEvaluator.create() calls this when the module is there.
+     */
+    public VectorBatchEvaluator() {
+    }
+
+    private static int value(HandCategory category) {
+        return (15 - category.order) << 22;
+    }
+
+    @Override
+    public void evaluate(int[] cards, int from, int[] strengths, int to, int count) {
+        checkBounds(cards, from, strengths, to, count);
+        int lanes = SPECIES.length();
+        int[] keys = new int[6 * lanes];
+        int h = 0;
+        for (; h <= count - lanes; h += lanes) {
+            if (sortKeys(cards, from + h * 5, keys)) {
+                rank(keys, strengths, to + h);
+            } else {
+                // A hand with a repeated card: HandStrength reports which
+                evaluateScalar(cards, from + h * 5, strengths, to + h, lanes);
+            }
+        }
+        evaluateScalar(cards, from + h * 5, strengths, to + h, count - h);
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.vectorBitSize() + " bit)";
+    }
+
+    /*
+     * The work is split in two methods, passing vectors through a small array, because
+     * the JIT only turns Vector API calls into vector instructions when it can inline
+     * them, and stops inlining in a method that grows too large.
+     */
+
+    /**
+     * Works out the sort key of each card of one hand per lane, and whether the hand is a flush.
+     *
+     * @param keys Receives the keys of the first to fifth cards, then 1 for a flush or 0, a vector each
+     * @return false, if a hand holds a card twice
+     */
+    private static boolean sortKeys(int[] cards, int from, int[] keys) {
+        int lanes = SPECIES.length();
+        IntVector c0 = IntVector.fromArray(SPECIES, cards, from, HAND_OFFSETS, 0);
+        IntVector c1 = IntVector.fromArray(SPECIES, cards, from + 1, HAND_OFFSETS, 0);
+        IntVector c2 = IntVector.fromArray(SPECIES, cards, from + 2, HAND_OFFSETS, 0);
+        IntVector c3 = IntVector.fromArray(SPECIES, cards, from + 3, HAND_OFFSETS, 0);
+        IntVector c4 = IntVector.fromArray(SPECIES, cards, from + 4, HAND_OFFSETS, 0);
+        VectorMask<Integer> repeated = c0.eq(c1).or(c0.eq(c2)).or(c0.eq(c3)).or(c0.eq(c4))
+                .or(c1.eq(c2)).or(c1.eq(c3)).or(c1.eq(c4)).or(c2.eq(c3)).or(c2.eq(c4)).or(c3.eq(c4));
+        if (repeated.anyTrue()) {
+            return false;
+        }
+
+        // Face values from 2 to 14 in bits 8-11, so they compare as the keys will
+        IntVector f0 = c0.lanewise(VectorOperators.LSHL, 6).and(0xF00).add(0x200);
+        IntVector f1 = c1.lanewise(VectorOperators.LSHL, 6).and(0xF00).add(0x200);
+        IntVector f2 = c2.lanewise(VectorOperators.LSHL, 6).and(0xF00).add(0x200);
+        IntVector f3 = c3.lanewise(VectorOperators.LSHL, 6).and(0xF00).add(0x200);
+        IntVector f4 = c4.lanewise(VectorOperators.LSHL, 6).and(0xF00).add(0x200);
+
+        // How many cards share each card's face value, in bits 12-14
+        IntVector zero = IntVector.zero(SPECIES);
+        IntVector e01 = zero.blend(0x1000, f0.eq(f1));
+        IntVector e02 = zero.blend(0x1000, f0.eq(f2));
+        IntVector e03 = zero.blend(0x1000, f0.eq(f3));
+        IntVector e04 = zero.blend(0x1000, f0.eq(f4));
+        IntVector e12 = zero.blend(0x1000, f1.eq(f2));
+        IntVector e13 = zero.blend(0x1000, f1.eq(f3));
+        IntVector e14 = zero.blend(0x1000, f1.eq(f4));
+        IntVector e23 = zero.blend(0x1000, f2.eq(f3));
+        IntVector e24 = zero.blend(0x1000, f2.eq(f4));
+        IntVector e34 = zero.blend(0x1000, f3.eq(f4));
+
+        // Sort keys: count, face value, earlier dealt first, suit
+        c0.and(3).or(0x1000 | 4 << 2).add(f0).add(e01).add(e02).add(e03).add(e04).intoArray(keys, 0);
+        c1.and(3).or(0x1000 | 3 << 2).add(f1).add(e01).add(e12).add(e13).add(e14).intoArray(keys, lanes);
+        c2.and(3).or(0x1000 | 2 << 2).add(f2).add(e02).add(e12).add(e23).add(e24).intoArray(keys, 2 * lanes);
+        c3.and(3).or(0x1000 | 1 << 2).add(f3).add(e03).add(e13).add(e23).add(e34).intoArray(keys, 3 * lanes);
+        c4.and(3).or(0x1000).add(f4).add(e04).add(e14).add(e24).add(e34).intoArray(keys, 4 * lanes);
+
+        IntVector s0 = c0.and(3);
+        VectorMask<Integer> flush = s0.eq(c1.and(3)).and(s0.eq(c2.and(3))).and(s0.eq(c3.and(3))).and(s0.eq(c4.and(3)));
+        zero.blend(1, flush).intoArray(keys, 5 * lanes);
+        return true;
+    }
+
+    /**
+     * Sorts the keys of each lane's hand and writes the hand's strength.
+     */
+    private static void rank(int[] keys, int[] strengths, int to) {
+        int lanes = SPECIES.length();
+        IntVector k0 = IntVector.fromArray(SPECIES, keys, 0);
+        IntVector k1 = IntVector.fromArray(SPECIES, keys, lanes);
+        IntVector k2 = IntVector.fromArray(SPECIES, keys, 2 * lanes);
+        IntVector k3 = IntVector.fromArray(SPECIES, keys, 3 * lanes);
+        IntVector k4 = IntVector.fromArray(SPECIES, keys, 4 * lanes);
+        VectorMask<Integer> flush = IntVector.fromArray(SPECIES, keys, 5 * lanes).eq(1);
+
+        // Five input sorting network, highest key first
+        IntVector t;
+        t = k0.max(k1); k1 = k0.min(k1); k0 = t;
+        t = k3.max(k4); k4 = k3.min(k4); k3 = t;
+        t = k2.max(k4); k4 = k2.min(k4); k2 = t;
+        t = k2.max(k3); k3 = k2.min(k3); k2 = t;
+        t = k1.max(k4); k4 = k1.min(k4); k1 = t;
+        t = k0.max(k3); k3 = k0.min(k3); k0 = t;
+        t = k0.max(k2); k2 = k0.min(k2); k0 = t;
+        t = k1.max(k3); k3 = k1.min(k3); k1 = t;
+        t = k1.max(k2); k2 = k1.min(k2); k1 = t;
+
+        IntVector g0 = k0.lanewise(VectorOperators.LSHR, 8).and(15);
+        IntVector g1 = k1.lanewise(VectorOperators.LSHR, 8).and(15);
+        IntVector g2 = k2.lanewise(VectorOperators.LSHR, 8).and(15);
+        IntVector g3 = k3.lanewise(VectorOperators.LSHR, 8).and(15);
+        IntVector g4 = k4.lanewise(VectorOperators.LSHR, 8).and(15);
+        IntVector suit0 = k0.and(3);
+        IntVector count0 = k0.lanewise(VectorOperators.LSHR, 12);
+        VectorMask<Integer> pairs = count0.eq(2);
+        VectorMask<Integer> sets = count0.eq(3);
+
+        VectorMask<Integer> wheel = g0.eq(14).and(g1.eq(5));
+        VectorMask<Integer> straight = count0.eq(1).and(g0.sub(g4).eq(4).or(wheel));
+        IntVector high = g0.blend(5, wheel);
+        IntVector faces = g0.lanewise(VectorOperators.LSHL, 16).or(g1.lanewise(VectorOperators.LSHL, 12))
+                .or(g2.lanewise(VectorOperators.LSHL, 8)).or(g3.lanewise(VectorOperators.LSHL, 4)).or(g4);
+
+        // Start from high card and blend in each better category
+        IntVector strength = suit0.lanewise(VectorOperators.LSHL, 20).or(faces).or(HIGH_CARD);
+        strength = strength.blend(k2.and(3).lanewise(VectorOperators.LSHL, 16).or(g0.lanewise(VectorOperators.LSHL, 12))
+                .or(faces.and(0xFFF)).or(PAIR), pairs);
+        strength = strength.blend(suit0.lanewise(VectorOperators.LSHL, 12).or(g0.lanewise(VectorOperators.LSHL, 8))
+                .or(g2.lanewise(VectorOperators.LSHL, 4)).or(g4).or(TWO_PAIR), pairs.and(k2.compare(VectorOperators.GE, 0x2000)));
+        strength = strength.blend(g0.lanewise(VectorOperators.LSHL, 10).or(g3.lanewise(VectorOperators.LSHL, 6))
+                .or(g4.lanewise(VectorOperators.LSHL, 2)).or(k3.and(3)).or(THREE_OF_A_KIND), sets);
+        IntVector letter = suit0.blend(IntVector.broadcast(SPECIES, 1).sub(suit0), suit0.lt(2));
+        strength = strength.blend(letter.lanewise(VectorOperators.LSHL, 4).or(high).or(STRAIGHT), straight);
+        strength = strength.blend(suit0.lanewise(VectorOperators.LSHL, 20).or(faces).or(FLUSH), flush);
+        strength = strength.blend(g0.lanewise(VectorOperators.LSHL, 4).or(g3).or(FULL_HOUSE),
+                sets.and(k3.compare(VectorOperators.GE, 0x2000)));
+        strength = strength.blend(g0.lanewise(VectorOperators.LSHL, 4).or(g4).or(FOUR_OF_A_KIND), count0.eq(4));
+        IntVector straightFlush = IntVector.broadcast(SPECIES, STRAIGHT_FLUSH).blend(ROYAL_STRAIGHT_FLUSH, high.eq(14));
+        strength = strength.blend(straightFlush.or(suit0.lanewise(VectorOperators.LSHL, 4)).or(high), straight.and(flush));
+
+        strength.intoArray(strengths, to);
+    }
+}